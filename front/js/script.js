@@ -30,17 +30,17 @@ class ApiService {
     }
 
     uploadFile(file) {
-        const formData = new FormData();
-        formData.append('file', file);
-        
-        return this.request('/upload', {
-            method: 'POST',
-            body: formData,
+        return this.request(`/upload?name=${encodeURIComponent(file.name)}`, {
+            method: 'PUT',
+            headers: {
+                'Content-Type': file.type || 'application/octet-stream',
+            },
+            body: file,
         });
     }
 
-    getFiles() {
-        return this.request('');
+    getFiles(cursor) {
+        return this.request(cursor ? `?cursor=${encodeURIComponent(cursor)}` : '');
     }
 
     generateDownloadUrl(fileId) {
@@ -102,15 +102,15 @@ class UIManager {
         }
     }
 
-    renderFilesList(files = []) {
+    renderFilesList(files = [], nextCursor = null, append = false) {
         const { filesList } = this.elements;
         
-        if (!files.length) {
+        if (!append && !files.length) {
             filesList.innerHTML = '<p class="no-files">Файлы не загружены</p>';
             return;
         }
 
-        filesList.innerHTML = files.map(file => `
+        const items = files.map(file => `
             <div class="file-item">
                 <span class="file-name">${file.originalFileName || file.id}</span>
                 <button class="get-link-btn" data-file-id="${file.id}" data-file-name="${file.originalFileName}">
@@ -118,6 +118,19 @@ class UIManager {
                 </button>
             </div>
         `).join('');
+
+        filesList.querySelector('.load-more-btn')?.remove();
+        if (append) {
+            filesList.insertAdjacentHTML('beforeend', items);
+        } else {
+            filesList.innerHTML = items;
+        }
+
+        if (nextCursor) {
+            filesList.insertAdjacentHTML('beforeend', `
+                <button class="load-more-btn" data-cursor="${nextCursor}">Показать ещё</button>
+            `);
+        }
     }
 
     showFilesListError() {
@@ -230,10 +243,10 @@ class FileService {
         }
     }
 
-    async loadFilesList() {
+    async loadFilesList(cursor = null) {
         try {
-            const files = await this.apiService.getFiles();
-            this.uiManager.renderFilesList(files);
+            const page = await this.apiService.getFiles(cursor);
+            this.uiManager.renderFilesList(page.items, page.nextCursor, cursor !== null);
         } catch (error) {
             console.error('Load files error:', error);
             this.uiManager.showFilesListError();
@@ -244,6 +257,9 @@ class FileService {
         if (event.target.classList.contains('get-link-btn')) {
             const { fileId, fileName } = event.target.dataset;
             this.downloadService.downloadFile(fileId, fileName);
+        } else if (event.target.classList.contains('load-more-btn')) {
+            event.target.disabled = true;
+            this.loadFilesList(event.target.dataset.cursor);
         }
     }
 }
@@ -0,0 +1,162 @@
+package benchmark;
+
+import config.web.DownloadMode;
+import controller.util.StreamFileContentWriter;
+import controller.util.ZeroCopyFileContentWriter;
+import controller.util.abstracts.FileContentWriter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the file through a real Jetty connector on the loopback interface, so the writers see Jetty's
+ * {@code HttpOutput} and the zero-copy path maps the file instead of falling back to a stream copy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DownloadBenchmark {
+    private static final String CONTENT_LENGTH = "Content-Length:";
+    private static final byte[] FULL_REQUEST = request("/full");
+    private static final byte[] TAIL_REQUEST = request("/tail");
+
+    @Param({"4096", "1048576", "67108864"})
+    private int fileSize;
+
+    @Param({"LEGACY", "ZERO_COPY"})
+    private DownloadMode downloadMode;
+
+    private Path filePath;
+    private FileContentWriter fileContentWriter;
+    private Server server;
+    private Socket socket;
+    private OutputStream requestStream;
+    private InputStream responseStream;
+    private final byte[] drainBuffer = new byte[64 * 1024];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        filePath = Files.createTempFile("download-benchmark", ".bin");
+        Files.write(filePath, content);
+
+        fileContentWriter = switch (downloadMode) {
+            case LEGACY -> new StreamFileContentWriter();
+            case ZERO_COPY -> new ZeroCopyFileContentWriter();
+        };
+
+        server = new Server();
+        ServerConnector connector = new ServerConnector(server);
+        connector.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        server.addConnector(connector);
+        ServletContextHandler context = new ServletContextHandler();
+        context.addServlet(new ServletHolder(new FileServlet()), "/*");
+        server.setHandler(context);
+        server.start();
+
+        socket = new Socket(InetAddress.getLoopbackAddress(), connector.getLocalPort());
+        socket.setTcpNoDelay(true);
+        requestStream = socket.getOutputStream();
+        responseStream = new BufferedInputStream(socket.getInputStream(), drainBuffer.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        socket.close();
+        server.stop();
+        Files.deleteIfExists(filePath);
+    }
+
+    @Benchmark
+    public long writeFullContent() throws IOException {
+        return exchange(FULL_REQUEST);
+    }
+
+    @Benchmark
+    public long writeTailRange() throws IOException {
+        return exchange(TAIL_REQUEST);
+    }
+
+    private long exchange(byte[] request) throws IOException {
+        requestStream.write(request);
+        requestStream.flush();
+
+        long remaining = readContentLength();
+        long received = remaining;
+        while (remaining > 0) {
+            int read = responseStream.read(drainBuffer, 0, (int) Math.min(drainBuffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Connection closed with " + remaining + " bytes outstanding");
+            }
+            remaining -= read;
+        }
+        return received;
+    }
+
+    private long readContentLength() throws IOException {
+        long contentLength = -1;
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int b = responseStream.read();
+            if (b < 0) {
+                throw new EOFException("Connection closed while reading headers");
+            }
+            if (b != '\n') {
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+                continue;
+            }
+            if (line.length() == 0) {
+                return contentLength;
+            }
+            String header = line.toString();
+            if (header.regionMatches(true, 0, CONTENT_LENGTH, 0, CONTENT_LENGTH.length())) {
+                contentLength = Long.parseLong(header.substring(CONTENT_LENGTH.length()).trim());
+            }
+            line.setLength(0);
+        }
+    }
+
+    private static byte[] request(String path) {
+        return ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private class FileServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            long position = "/tail".equals(req.getPathInfo()) ? fileSize / 2 : 0;
+            long count = fileSize - position;
+            resp.setContentLengthLong(count);
+            fileContentWriter.write(resp.getOutputStream(), filePath, position, count);
+        }
+    }
+}
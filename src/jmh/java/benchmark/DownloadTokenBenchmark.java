@@ -0,0 +1,42 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import service.DownloadToken;
+import service.DownloadTokenService;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DownloadTokenBenchmark {
+
+    private final DownloadTokenService downloadTokenService =
+            new DownloadTokenService("benchmark", Duration.ofHours(1), 0, null);
+    private final UUID fileId = UUID.randomUUID();
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        token = downloadTokenService.issue(fileId);
+    }
+
+    @Benchmark
+    public String issue() {
+        return downloadTokenService.issue(fileId);
+    }
+
+    @Benchmark
+    public DownloadToken verify() {
+        return downloadTokenService.verify(token);
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import benchmark.support.DiscardingServletOutputStream;
+import benchmark.support.ServletStubs;
+import com.fasterxml.jackson.core.JsonGenerator;
+import controller.util.JsonResponseWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import model.dto.FileResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonResponseWriterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int listSize;
+
+    private final JsonResponseWriter responseWriter = new JsonResponseWriter();
+    private final DiscardingServletOutputStream out = new DiscardingServletOutputStream();
+    private HttpServletResponse resp;
+    private List<FileResponse> files;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resp = ServletStubs.response(out);
+        files = new ArrayList<>(listSize);
+        LocalDateTime uploadDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < listSize; i++) {
+            files.add(FileResponse.builder()
+                    .id(UUID.randomUUID())
+                    .originalFileName("document-" + i + ".pdf")
+                    .fileSize(1024L * (i + 1))
+                    .contentType("application/pdf")
+                    .uploadDate(uploadDate.plusMinutes(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public long writeJsonResponse() throws IOException {
+        out.reset();
+        responseWriter.writeJsonResponse(resp, files);
+        return out.getWritten();
+    }
+
+    @Benchmark
+    public long streamJsonValues() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = responseWriter.startJsonStream(resp)) {
+            generator.writeStartArray();
+            for (FileResponse file : files) {
+                responseWriter.writeJsonValue(generator, file);
+            }
+            generator.writeEndArray();
+        }
+        return out.getWritten();
+    }
+}
@@ -0,0 +1,145 @@
+package benchmark;
+
+import benchmark.support.ServletStubs;
+import controller.handlers.ArchiveHandler;
+import controller.handlers.BatchHandler;
+import controller.handlers.ChunkedUploadHandler;
+import controller.handlers.DownloadHandler;
+import controller.handlers.GetFilesHandler;
+import controller.handlers.GetUrlHandler;
+import controller.handlers.StreamingUploadHandler;
+import controller.handlers.UpdateDownloadCountHandler;
+import controller.handlers.UploadHandler;
+import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.routing.Router;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Compares the route trie used by FileController with the previous dispatch, which streamed over
+ * every handler's canHandle check and split the path to extract parameters. The trie is built from the
+ * routes the real handlers declare, registered in FileController's order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoutingBenchmark {
+    private static final String SESSION_ID = UUID.randomUUID().toString();
+
+    @Param({"list", "download", "upload", "chunk", "batch", "miss"})
+    private String request;
+
+    private final Router<FileRequestHandler> router = createRouter(List.of(
+            new GetFilesHandler(null, null),
+            new DownloadHandler(null, null, false, null),
+            new UploadHandler(null, null),
+            new StreamingUploadHandler(null, null),
+            new ChunkedUploadHandler(null, null),
+            new GetUrlHandler(null, null),
+            new UpdateDownloadCountHandler(null, null),
+            new BatchHandler(null, null, null),
+            new ArchiveHandler(null, null)
+    ));
+
+    private final List<LegacyHandler> legacyHandlers = List.of(
+            new LegacyHandler("list", req -> "GET".equalsIgnoreCase(req.getMethod()) &&
+                    req.getPathInfo() == null),
+            new LegacyHandler("download", req -> "GET".equalsIgnoreCase(req.getMethod()) &&
+                    req.getPathInfo() != null &&
+                    req.getPathInfo().startsWith("/download")),
+            new LegacyHandler("upload", req -> "POST".equalsIgnoreCase(req.getMethod()) &&
+                    "/upload".equals(req.getPathInfo())),
+            new LegacyHandler("streaming-upload", req -> "PUT".equalsIgnoreCase(req.getMethod()) &&
+                    "/upload".equals(req.getPathInfo())),
+            new LegacyHandler("chunked", req -> req.getPathInfo() != null &&
+                    (req.getPathInfo().equals("/uploads") || req.getPathInfo().startsWith("/uploads/"))),
+            new LegacyHandler("get-url", req -> "POST".equalsIgnoreCase(req.getMethod()) &&
+                    "/get-url".equals(req.getPathInfo())),
+            new LegacyHandler("update-download-count", req -> "POST".equalsIgnoreCase(req.getMethod()) &&
+                    "/update-download-count".equals(req.getPathInfo())),
+            new LegacyHandler("batch", req -> "POST".equalsIgnoreCase(req.getMethod()) &&
+                    req.getPathInfo() != null &&
+                    req.getPathInfo().startsWith("/batch/")),
+            new LegacyHandler("archive", req -> "POST".equalsIgnoreCase(req.getMethod()) &&
+                    "/archive".equals(req.getPathInfo()))
+    );
+
+    private HttpServletRequest req;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        req = switch (request) {
+            case "list" -> ServletStubs.request("GET", null);
+            case "download" -> ServletStubs.request("GET",
+                    "/download/b3HP2183S_in9hD2cpcx9QAAAaFLr6xbAAAAAAUzOH64-WfDseZQoTiijQJt-WCfm3tUGUIVAVYb9snMVa56LAIyPog");
+            case "upload" -> ServletStubs.request("PUT", "/upload");
+            case "chunk" -> ServletStubs.request("PUT", "/uploads/" + SESSION_ID + "/chunks/17");
+            case "batch" -> ServletStubs.request("POST", "/batch/metadata");
+            default -> ServletStubs.request("GET", "/files/" + SESSION_ID);
+        };
+    }
+
+    private static Router<FileRequestHandler> createRouter(List<FileRequestHandler> handlers) {
+        Router<FileRequestHandler> router = new Router<>();
+        for (FileRequestHandler handler : handlers) {
+            for (Route route : handler.getRoutes()) {
+                router.add(route, handler);
+            }
+        }
+        return router;
+    }
+
+    @Benchmark
+    public Object legacyDispatch() {
+        Optional<LegacyHandler> handler = legacyHandlers.stream()
+                .filter(h -> h.canHandle.test(req))
+                .findFirst();
+        if (handler.isEmpty()) {
+            return null;
+        }
+        String[] segments = req.getPathInfo() == null ? null : req.getPathInfo().substring(1).split("/");
+        if (segments == null) {
+            return handler.get().name;
+        }
+        return segments.length == 4 ? Integer.valueOf(segments[3]) : segments[segments.length - 1];
+    }
+
+    @Benchmark
+    public Object routerDispatch() {
+        RouteMatch<FileRequestHandler> match = router.match(req.getMethod(), req.getPathInfo());
+        if (match == null) {
+            return null;
+        }
+        return switch (match.getRoute().getPattern()) {
+            case "/download/{token}" -> match.getParameter("token");
+            case "/uploads/{id}/chunks/{index}" -> match.getIntParameter("index");
+            default -> match.getTarget();
+        };
+    }
+
+    private static final class LegacyHandler {
+        private final String name;
+        private final Predicate<HttpServletRequest> canHandle;
+
+        private LegacyHandler(String name, Predicate<HttpServletRequest> canHandle) {
+            this.name = name;
+            this.canHandle = canHandle;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import benchmark.support.InMemoryFileMetadataRepository;
+import benchmark.support.InMemoryStoredBlobRepository;
+import config.web.StorageMode;
+import model.dto.FileResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import service.DownloadCountAggregator;
+import service.DownloadTokenService;
+import service.CompressionPolicy;
+import service.FileStorageService;
+import service.LocalBlobStore;
+import service.ShardedStorageLayout;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UploadBenchmark {
+
+    @Param({"65536", "1048576", "16777216"})
+    private int fileSize;
+
+    @Param({"UNIQUE", "CONTENT_ADDRESSED"})
+    private StorageMode storageMode;
+
+    private Path uploadPath;
+    private byte[] content;
+    private InMemoryFileMetadataRepository fileMetadataRepository;
+    private InMemoryStoredBlobRepository storedBlobRepository;
+    private DownloadCountAggregator downloadCountAggregator;
+    private FileStorageService fileStorageService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadPath = Files.createTempDirectory("upload-benchmark");
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+
+        fileMetadataRepository = new InMemoryFileMetadataRepository();
+        storedBlobRepository = new InMemoryStoredBlobRepository();
+        downloadCountAggregator = new DownloadCountAggregator(fileMetadataRepository, 60_000, Integer.MAX_VALUE);
+        fileStorageService = new FileStorageService(uploadPath,
+                new LocalBlobStore(new ShardedStorageLayout(uploadPath, 2, 2)), "http://localhost/download",
+                fileMetadataRepository, new DownloadTokenService("benchmark", Duration.ofHours(1), 0, null),
+                storedBlobRepository, storageMode, downloadCountAggregator, new CompressionPolicy(true, 1024, false), null, null);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearUploads() throws IOException {
+        fileMetadataRepository.clear();
+        storedBlobRepository.clear();
+        try (Stream<Path> files = Files.walk(uploadPath)) {
+            files.filter(Files::isRegularFile).forEach(UploadBenchmark::delete);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        downloadCountAggregator.close();
+        try (Stream<Path> files = Files.walk(uploadPath)) {
+            files.sorted(Comparator.reverseOrder()).forEach(UploadBenchmark::delete);
+        }
+    }
+
+    @Benchmark
+    public FileResponse uploadFile() {
+        return fileStorageService.uploadFile(new ByteArrayInputStream(content), "benchmark.bin",
+                "application/octet-stream", content.length);
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package benchmark.support;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+public class DiscardingServletOutputStream extends ServletOutputStream {
+    private long written;
+
+    @Override
+    public void write(int b) {
+        written++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        written += len;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+        throw new UnsupportedOperationException("Blocking stand-in");
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public void reset() {
+        written = 0;
+    }
+}
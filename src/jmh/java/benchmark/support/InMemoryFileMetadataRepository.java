@@ -0,0 +1,115 @@
+package benchmark.support;
+
+import model.dto.DownloadCountDelta;
+import model.dto.FileListQuery;
+import model.entity.FileMetadata;
+import org.hibernate.SessionFactory;
+import repository.FileMetadataRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class InMemoryFileMetadataRepository extends FileMetadataRepository {
+    private final Map<UUID, FileMetadata> files = new ConcurrentHashMap<>();
+
+    public InMemoryFileMetadataRepository() {
+        super((SessionFactory) null);
+    }
+
+    @Override
+    public FileMetadata save(FileMetadata fileMetadata) {
+        if (fileMetadata.getId() == null) {
+            fileMetadata.setId(UUID.randomUUID());
+            fileMetadata.prePersist();
+        }
+        files.put(fileMetadata.getId(), fileMetadata);
+        return fileMetadata;
+    }
+
+    @Override
+    public Optional<FileMetadata> findById(UUID id) {
+        return Optional.ofNullable(files.get(id));
+    }
+
+    @Override
+    public List<FileMetadata> findAllByIds(Collection<UUID> ids) {
+        return ids.stream()
+                .map(files::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void delete(UUID id) {
+        files.remove(id);
+    }
+
+    @Override
+    public DeletedFiles deleteAllAndRelease(Collection<UUID> ids) {
+        int deletedCount = 0;
+        Map<String, BlobRelease> releases = new HashMap<>();
+        for (UUID id : ids) {
+            FileMetadata removed = files.remove(id);
+            if (removed != null) {
+                deletedCount++;
+                releases.put(removed.getStoredFileName(), BlobRelease.UNTRACKED);
+            }
+        }
+        return new DeletedFiles(deletedCount, releases);
+    }
+
+    @Override
+    public Set<UUID> incrementDownloadCounts(List<DownloadCountDelta> deltas) {
+        Set<UUID> updated = new HashSet<>();
+        for (DownloadCountDelta delta : deltas) {
+            FileMetadata file = files.get(delta.getFileId());
+            if (file != null) {
+                file.setDownloadCount(file.getDownloadCount() + (int) delta.getDelta());
+                file.setLastDownloadDate(delta.getLastDownloadDate());
+                updated.add(file.getId());
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public void scrollFiles(FileListQuery query, int maxResults, Consumer<FileMetadata> consumer) {
+        files.values().stream()
+                .sorted(Comparator.comparing(FileMetadata::getUploadDate)
+                        .thenComparing(FileMetadata::getId)
+                        .reversed())
+                .limit(maxResults)
+                .forEach(consumer);
+    }
+
+    @Override
+    public List<FileMetadata> findStaleFiles(LocalDateTime threshold, LocalDateTime afterActivityDate,
+                                             UUID afterId, int limit) {
+        Comparator<FileMetadata> order = Comparator.comparing(FileMetadata::getLastActivityDate)
+                .thenComparing(FileMetadata::getId);
+        FileMetadata after = afterActivityDate == null ? null
+                : FileMetadata.builder().uploadDate(afterActivityDate).id(afterId).build();
+        return files.values().stream()
+                .filter(file -> file.getLastActivityDate().isBefore(threshold))
+                .filter(file -> after == null || order.compare(file, after) > 0)
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        files.clear();
+    }
+}
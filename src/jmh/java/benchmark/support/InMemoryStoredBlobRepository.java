@@ -0,0 +1,61 @@
+package benchmark.support;
+
+import org.hibernate.SessionFactory;
+import repository.StoredBlobRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class InMemoryStoredBlobRepository extends StoredBlobRepository {
+    private final Map<String, Long> references = new ConcurrentHashMap<>();
+
+    public InMemoryStoredBlobRepository() {
+        super((SessionFactory) null);
+    }
+
+    @Override
+    public long acquire(String digest, long blobSize) {
+        return references.merge(digest, 1L, Long::sum);
+    }
+
+    @Override
+    public synchronized boolean release(String digest, Consumer<String> onLastReference) {
+        Long count = references.get(digest);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            references.put(digest, count - 1);
+        } else {
+            onLastReference.accept(digest);
+            references.remove(digest);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean purge(String digest, Consumer<String> onPurge) {
+        Long count = references.get(digest);
+        if (count == null || count > 0) {
+            return false;
+        }
+        onPurge.accept(digest);
+        references.remove(digest);
+        return true;
+    }
+
+    @Override
+    public List<String> findUnreferenced(int limit) {
+        return references.entrySet().stream()
+                .filter(entry -> entry.getValue() == 0)
+                .map(Map.Entry::getKey)
+                .limit(limit)
+                .toList();
+    }
+
+    public void clear() {
+        references.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package benchmark.support;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+public final class ServletStubs {
+
+    private ServletStubs() {
+    }
+
+    public static HttpServletRequest request(String method, String pathInfo) {
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class},
+                (proxy, invoked, args) -> {
+                    switch (invoked.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getPathInfo":
+                            return pathInfo;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    public static HttpServletResponse response(ServletOutputStream out) {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return (HttpServletResponse) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getOutputStream":
+                            return out;
+                        case "getWriter":
+                            return writer;
+                        case "isCommitted":
+                            return false;
+                        case "getStatus":
+                            return HttpServletResponse.SC_OK;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -1,25 +1,49 @@
 import config.HibernateUtil;
 import config.web.ApplicationFactory;
+import config.web.BlobStoreType;
 import config.web.ServerConfig;
 import config.web.abstracts.ServerInitializer;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.SchedulerException;
 import scheduler.FileCleanupScheduler;
+import service.ChunkedUploadService;
+import service.DownloadCountAggregator;
+import service.FileStorageService;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 public class Application {
+    private static final AtomicBoolean stopped = new AtomicBoolean();
     private static FileCleanupScheduler cleanupScheduler;
+    private static DownloadCountAggregator downloadCountAggregator;
 
     public static void main(String[] args) throws Exception {
         try {
-
+            Runtime.getRuntime().addShutdownHook(new Thread(Application::shutdown, "application-shutdown"));
 
             ServerConfig config = ApplicationFactory.createServerConfig();
 
-            cleanupScheduler = ApplicationFactory.createFileCleanupScheduler(config);
+            downloadCountAggregator = ApplicationFactory.createDownloadCountAggregator(config);
+            FileStorageService fileStorageService =
+                    ApplicationFactory.createFileStorageService(config, downloadCountAggregator);
+            ChunkedUploadService chunkedUploadService =
+                    ApplicationFactory.createChunkedUploadService(config, fileStorageService);
+            chunkedUploadService.reopenInterruptedSessions();
+
+            cleanupScheduler = ApplicationFactory.createFileCleanupScheduler(config, chunkedUploadService);
             cleanupScheduler.start();
 
-            ServerInitializer serverInitializer = ApplicationFactory.createServerInitializer(config);
+            if (config.isStorageLayoutMigration() && config.getBlobStoreType() == BlobStoreType.LOCAL) {
+                Thread migration = new Thread(ApplicationFactory.createStorageLayoutMigrator(config),
+                        "storage-layout-migration");
+                migration.setDaemon(true);
+                migration.setPriority(Thread.MIN_PRIORITY);
+                migration.start();
+            }
+
+            ServerInitializer serverInitializer =
+                    ApplicationFactory.createServerInitializer(config, fileStorageService, chunkedUploadService);
 
             serverInitializer.initialize();
 
@@ -33,6 +57,10 @@ public class Application {
     }
 
     private static void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+
         if (cleanupScheduler != null) {
             try {
                 cleanupScheduler.stop();
@@ -41,6 +69,14 @@ public class Application {
             }
         }
 
+        if (downloadCountAggregator != null) {
+            try {
+                downloadCountAggregator.close();
+            } catch (Exception e) {
+                log.error("Error flushing download counts", e);
+            }
+        }
+
         HibernateUtil.shutdown();
     }
 }
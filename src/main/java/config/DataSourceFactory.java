@@ -0,0 +1,49 @@
+package config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Properties;
+
+@Slf4j
+class DataSourceFactory {
+
+    static HikariDataSource create(Properties properties, ConnectionPoolMetrics metrics) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("file-service-db");
+        config.setDriverClassName(properties.getProperty("hibernate.driver_class"));
+        config.setJdbcUrl(properties.getProperty("hibernate.connection.url"));
+        config.setUsername(properties.getProperty("hibernate.connection.username"));
+        config.setPassword(properties.getProperty("hibernate.connection.password"));
+
+        config.setMaximumPoolSize(getInt(properties, "db.pool.maximum-size", 20));
+        config.setMinimumIdle(getInt(properties, "db.pool.minimum-idle", 5));
+        config.setConnectionTimeout(getLong(properties, "db.pool.connection-timeout-ms", 5_000));
+        config.setIdleTimeout(getLong(properties, "db.pool.idle-timeout-ms", 600_000));
+        config.setMaxLifetime(getLong(properties, "db.pool.max-lifetime-ms", 1_800_000));
+        config.setAutoCommit(false);
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(metrics);
+
+        config.addDataSourceProperty("prepareThreshold", getInt(properties, "db.prepare-threshold", 1));
+        config.addDataSourceProperty("preparedStatementCacheQueries",
+                getInt(properties, "db.statement-cache.queries", 512));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                getInt(properties, "db.statement-cache.size-mib", 8));
+        config.addDataSourceProperty("reWriteBatchedInserts", true);
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        log.info("Connection pool {} started: max {} connections, min idle {}",
+                config.getPoolName(), config.getMaximumPoolSize(), config.getMinimumIdle());
+        return dataSource;
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        return Integer.parseInt(System.getProperty(key, properties.getProperty(key, String.valueOf(defaultValue))));
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        return Long.parseLong(System.getProperty(key, properties.getProperty(key, String.valueOf(defaultValue))));
+    }
+}
@@ -1,21 +1,41 @@
 package config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import model.entity.FileMetadata;
+import model.entity.StoredBlob;
+import model.entity.UploadSession;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.JdbcSettings;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
 
 @Slf4j
 public class HibernateUtil {
+    private static final String PROPERTIES_RESOURCE = "/hibernate.properties";
+
+    @Getter
+    private static final ConnectionPoolMetrics connectionPoolMetrics = new ConnectionPoolMetrics();
+    private static final HikariDataSource dataSource;
     @Getter
     private static final SessionFactory sessionFactory;
 
     static {
         try {
-            sessionFactory = new Configuration()
+            Properties properties = loadProperties();
+            dataSource = DataSourceFactory.create(properties, connectionPoolMetrics);
+            SchemaMigrator.migrate(dataSource);
+
+            Configuration configuration = new Configuration().addProperties(properties);
+            configuration.getProperties().put(JdbcSettings.CONNECTION_PROVIDER, new PooledConnectionProvider(dataSource));
+            sessionFactory = configuration
                     .addAnnotatedClass(FileMetadata.class)
+                    .addAnnotatedClass(StoredBlob.class)
+                    .addAnnotatedClass(UploadSession.class)
                     .buildSessionFactory();
             log.info("Hibernate SessionFactory created successfully");
         } catch (Throwable ex) {
@@ -24,10 +44,25 @@ public class HibernateUtil {
         }
     }
 
+    private static Properties loadProperties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = HibernateUtil.class.getResourceAsStream(PROPERTIES_RESOURCE)) {
+            if (input == null) {
+                throw new IOException("Missing " + PROPERTIES_RESOURCE + " on the classpath");
+            }
+            properties.load(input);
+        }
+        return properties;
+    }
+
     public static void shutdown() {
         log.info("Closing Hibernate SessionFactory");
         if (sessionFactory != null) {
             sessionFactory.close();
         }
+        log.info("Closing connection pool: {}", connectionPoolMetrics);
+        if (dataSource != null) {
+            dataSource.close();
+        }
     }
 }
@@ -0,0 +1,26 @@
+package config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+
+import javax.sql.DataSource;
+
+@Slf4j
+class SchemaMigrator {
+    private static final String MIGRATION_LOCATION = "classpath:db/migration";
+
+    static void migrate(DataSource dataSource) {
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(MIGRATION_LOCATION)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+
+        MigrateResult result = flyway.migrate();
+        log.info("Database schema is at version {} ({} migrations applied)",
+                result.targetSchemaVersion != null ? result.targetSchemaVersion : result.initialSchemaVersion,
+                result.migrationsExecuted);
+    }
+}
@@ -1,58 +1,238 @@
 package config.web;
 
+import config.ConnectionPoolMetrics;
+import config.HibernateUtil;
 import config.web.abstracts.FilterConfigurator;
 import config.web.abstracts.ServerInitializer;
 import config.web.abstracts.ServletConfigurator;
+import controller.util.StreamFileContentWriter;
+import controller.util.ZeroCopyFileContentWriter;
+import controller.util.abstracts.FileContentWriter;
+import metrics.MetricsRegistry;
 import org.quartz.SchedulerException;
+import repository.CachingFileMetadataRepository;
 import repository.FileMetadataRepository;
+import repository.StoredBlobRepository;
+import repository.UploadSessionRepository;
 import scheduler.FileCleanupScheduler;
+import service.ChunkedUploadService;
+import service.CompressedVariantCache;
+import service.CompressionPolicy;
+import service.DownloadCountAggregator;
+import service.DownloadTokenService;
 import service.FileCleanupService;
 import service.FileStorageService;
+import service.FlatStorageLayout;
+import service.HotContentCache;
+import service.LocalBlobStore;
+import service.S3BlobStore;
+import service.ShardedStorageLayout;
+import service.StorageLayoutMigrator;
+import service.TokenUsageStore;
+import service.abstracts.BlobStore;
+import service.abstracts.StorageLayout;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
 
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ApplicationFactory {
+    private static FileMetadataRepository fileMetadataRepository;
+    private static BlobStore blobStore;
+
     public static ServerConfig createServerConfig() {
         return ServerConfig.createDefault();
     }
 
-    public static FileMetadataRepository createFileMetadataRepository() {
-        return new FileMetadataRepository();
+    public static synchronized FileMetadataRepository getFileMetadataRepository(ServerConfig config) {
+        if (fileMetadataRepository == null) {
+            fileMetadataRepository = config.getMetadataCacheMaxSize() > 0
+                    ? createCachingFileMetadataRepository(config)
+                    : new FileMetadataRepository();
+        }
+        return fileMetadataRepository;
+    }
+
+    private static CachingFileMetadataRepository createCachingFileMetadataRepository(ServerConfig config) {
+        CachingFileMetadataRepository repository = new CachingFileMetadataRepository(
+                config.getMetadataCacheMaxSize(), config.getMetadataCacheTtl(), config.getMetadataCacheNegativeTtl());
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.counterFunction("metadata_cache_requests_total", "File metadata cache lookups",
+                () -> repository.getCacheStats().hitCount(), "result", "hit");
+        metrics.counterFunction("metadata_cache_requests_total", "File metadata cache lookups",
+                () -> repository.getCacheStats().missCount(), "result", "miss");
+        metrics.counterFunction("metadata_cache_evictions_total", "File metadata cache evictions",
+                () -> repository.getCacheStats().evictionCount());
+        metrics.gauge("metadata_cache_entries", "Entries held by the file metadata cache",
+                repository::getCacheSize);
+        return repository;
+    }
+
+    public static StoredBlobRepository createStoredBlobRepository() {
+        return new StoredBlobRepository();
+    }
+
+    public static StorageLayout createStorageLayout(ServerConfig config) {
+        return switch (config.getStorageLayoutMode()) {
+            case FLAT -> new FlatStorageLayout(config.getUploadPath());
+            case SHARDED -> new ShardedStorageLayout(config.getUploadPath(), 2, 2);
+        };
+    }
+
+    public static synchronized BlobStore getBlobStore(ServerConfig config) {
+        if (blobStore == null) {
+            blobStore = switch (config.getBlobStoreType()) {
+                case LOCAL -> new LocalBlobStore(createStorageLayout(config));
+                case S3 -> new S3BlobStore(createS3Client(config), config.getS3Bucket(), config.getS3KeyPrefix(),
+                        config.getS3PartSize(), config.getS3UploadParallelism());
+            };
+        }
+        return blobStore;
+    }
+
+    private static S3Client createS3Client(ServerConfig config) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(config.getS3Region()))
+                .forcePathStyle(config.isS3PathStyleAccess());
+        if (config.getS3Endpoint() != null && !config.getS3Endpoint().isEmpty()) {
+            builder.endpointOverride(URI.create(config.getS3Endpoint()));
+        }
+        return builder.build();
+    }
+
+    public static StorageLayoutMigrator createStorageLayoutMigrator(ServerConfig config) {
+        return new StorageLayoutMigrator(createStorageLayout(config));
+    }
+
+    public static DownloadTokenService createDownloadTokenService(ServerConfig config) {
+        TokenUsageStore usageStore = config.getDownloadLinkMaxUses() > 0
+                ? new TokenUsageStore(config.getDownloadTokenStoreCapacity())
+                : null;
+        if (usageStore != null) {
+            MetricsRegistry.getInstance().gauge("download_token_usage_entries",
+                    "Single-use download tokens currently tracked", usageStore::size);
+        }
+        return new DownloadTokenService(config.getDownloadTokenSecret(), config.getDownloadLinkTtl(),
+                config.getDownloadLinkMaxUses(), usageStore);
+    }
+
+    public static DownloadCountAggregator createDownloadCountAggregator(ServerConfig config) {
+        DownloadCountAggregator aggregator = new DownloadCountAggregator(getFileMetadataRepository(config),
+                config.getDownloadCountFlushInterval().toMillis(), config.getDownloadCountFlushThreshold());
+        MetricsRegistry.getInstance().gauge("download_count_pending",
+                "Download events recorded but not yet written to the database", aggregator::getPendingCount);
+        return aggregator;
+    }
+
+    public static FileStorageService createFileStorageService(ServerConfig config,
+                                                              DownloadCountAggregator downloadCountAggregator) {
+        return new FileStorageService(config.getUploadPath(), getBlobStore(config), config.getDownloadBaseUrl(),
+                getFileMetadataRepository(config), createDownloadTokenService(config),
+                createStoredBlobRepository(), config.getStorageMode(), downloadCountAggregator,
+                createCompressionPolicy(config), createCompressedVariantCache(config), createHotContentCache(config));
+    }
+
+    public static HotContentCache createHotContentCache(ServerConfig config) {
+        if (config.getHotContentCacheMaxSize() <= 0) {
+            return null;
+        }
+        HotContentCache cache = new HotContentCache(config.getHotContentCacheMaxSize(),
+                config.getHotContentCacheMaxEntrySize(), config.getHotContentCacheHotThreshold());
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.counterFunction("hot_cache_requests_total", "Hot content cache lookups",
+                () -> cache.getStats().hitCount(), "result", "hit");
+        metrics.counterFunction("hot_cache_requests_total", "Hot content cache lookups",
+                () -> cache.getStats().missCount(), "result", "miss");
+        metrics.gauge("hot_cache_bytes", "Off-heap bytes held by the hot content cache", cache::getMemoryUsage);
+        metrics.gauge("hot_cache_entries", "Files held by the hot content cache", cache::getEntryCount);
+        return cache;
+    }
+
+    public static CompressionPolicy createCompressionPolicy(ServerConfig config) {
+        return new CompressionPolicy(config.isCompressionEnabled(), config.getCompressionMinSize(),
+                config.isStorageCompression());
     }
 
-    public static FileStorageService createFileStorageService(ServerConfig config) {
-        return new FileStorageService(config.getUploadPath(), config.getDownloadBaseUrl(), createFileMetadataRepository());
+    public static CompressedVariantCache createCompressedVariantCache(ServerConfig config) {
+        if (!config.isCompressionEnabled() || config.getCompressionVariantCacheMaxSize() <= 0) {
+            return null;
+        }
+        return new CompressedVariantCache(config.getUploadPath(), config.getCompressionVariantCacheMaxSize(),
+                config.getCompressionVariantHotThreshold(), config.getCompressionVariantMaxSourceSize());
     }
 
     public static FileCleanupService createFileCleanupService(ServerConfig config) {
-        return new FileCleanupService(config.getUploadPath(), createFileMetadataRepository());
+        return new FileCleanupService(config.getUploadPath(), getBlobStore(config), getFileMetadataRepository(config),
+                createStoredBlobRepository(), config.getCleanupRetentionDays(), config.getCleanupBatchSize(),
+                config.getCleanupParallelism(), config.getCleanupTimeBudget(), config.getCleanupMaxDeletesPerSecond());
     }
 
-    public static FileCleanupScheduler createFileCleanupScheduler(ServerConfig config) {
+    public static ChunkedUploadService createChunkedUploadService(ServerConfig config,
+                                                                  FileStorageService fileStorageService) {
+        return new ChunkedUploadService(fileStorageService, new UploadSessionRepository(),
+                config.getUploadChunkSize(), config.getUploadMaxChunkSize(), config.getUploadSessionTtl());
+    }
+
+    public static FileCleanupScheduler createFileCleanupScheduler(ServerConfig config,
+                                                                  ChunkedUploadService chunkedUploadService) {
         try {
             FileCleanupService cleanupService = createFileCleanupService(config);
-            return new FileCleanupScheduler(cleanupService);
+            return new FileCleanupScheduler(cleanupService, chunkedUploadService,
+                    config.getUploadSessionCleanupInterval());
         } catch (SchedulerException e) {
             throw new RuntimeException("Failed to create file cleanup scheduler", e);
         }
     }
 
+    public static FileContentWriter createFileContentWriter(ServerConfig config) {
+        return switch (config.getDownloadMode()) {
+            case LEGACY -> new StreamFileContentWriter();
+            case ZERO_COPY -> new ZeroCopyFileContentWriter();
+        };
+    }
+
     public static CorsFilterConfigurator createCorsFilterConfigurator() {
         return new CorsFilterConfigurator();
     }
 
     public static FileServletConfigurator createFileServletConfigurator(FileStorageService fileStorageService,
+                                                                    ChunkedUploadService chunkedUploadService,
                                                                     ServerConfig config) {
-        return new FileServletConfigurator(fileStorageService, config.getTempDir());
+        return new FileServletConfigurator(fileStorageService, chunkedUploadService, createFileContentWriter(config),
+                config.getTempDir(), config.isAsyncDownloads(), config.getDownloadCacheControl());
+    }
+
+    public static MetricsServletConfigurator createMetricsServletConfigurator(ServerConfig config) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        ConnectionPoolMetrics pool = HibernateUtil.getConnectionPoolMetrics();
+        metrics.gauge("db_pool_connections", "Database connections by state",
+                pool::getActiveConnections, "state", "active");
+        metrics.gauge("db_pool_connections", "Database connections by state",
+                pool::getIdleConnections, "state", "idle");
+        metrics.gauge("db_pool_pending_threads", "Threads waiting for a database connection",
+                pool::getPendingThreads);
+        metrics.counterFunction("db_pool_acquire_seconds_total", "Time spent acquiring database connections",
+                () -> pool.getAcquireNanos() / 1_000_000_000.0);
+        metrics.counterFunction("db_pool_acquire_total", "Database connection acquisitions",
+                pool::getAcquireCount);
+        metrics.counterFunction("db_pool_timeouts_total", "Database connection acquisition timeouts",
+                pool::getTimeoutCount);
+        return new MetricsServletConfigurator(metrics, config.getMetricsPath());
     }
 
-    public static ServerInitializer createServerInitializer(ServerConfig config) {
+    public static ServerInitializer createServerInitializer(ServerConfig config,
+                                                            FileStorageService fileStorageService,
+                                                            ChunkedUploadService chunkedUploadService) {
         List<FilterConfigurator> filterConfigurators = List.of(createCorsFilterConfigurator());
 
-        FileStorageService fileStorageService = createFileStorageService(config);
-        List<ServletConfigurator> servletConfigurators = List.of(
-                createFileServletConfigurator(fileStorageService, config)
-        );
+        List<ServletConfigurator> servletConfigurators = new ArrayList<>();
+        servletConfigurators.add(createFileServletConfigurator(fileStorageService, chunkedUploadService, config));
+        if (config.isMetricsEnabled()) {
+            servletConfigurators.add(createMetricsServletConfigurator(config));
+        }
 
         return new JettyServerInitializer(config, filterConfigurators, servletConfigurators);
     }
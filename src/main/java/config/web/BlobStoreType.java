@@ -0,0 +1,6 @@
+package config.web;
+
+public enum BlobStoreType {
+    LOCAL,
+    S3
+}
@@ -20,7 +20,9 @@ public class CorsFilterConfigurator implements FilterConfigurator {
 
     @Override
     public void configure(ServletContextHandler context) {
-        context.addFilter(new FilterHolder(corsFilter), "/*",
+        FilterHolder filterHolder = new FilterHolder(corsFilter);
+        filterHolder.setAsyncSupported(true);
+        context.addFilter(filterHolder, "/*",
                 EnumSet.of(DispatcherType.REQUEST));
         log.debug("CORS filter configured");
     }
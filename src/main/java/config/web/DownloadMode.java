@@ -0,0 +1,6 @@
+package config.web;
+
+public enum DownloadMode {
+    LEGACY,
+    ZERO_COPY
+}
@@ -0,0 +1,6 @@
+package config.web;
+
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL
+}
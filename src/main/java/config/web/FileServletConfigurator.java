@@ -2,24 +2,32 @@ package config.web;
 
 import config.web.abstracts.ServletConfigurator;
 import controller.FileController;
+import controller.util.abstracts.FileContentWriter;
 import jakarta.servlet.MultipartConfigElement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import service.ChunkedUploadService;
 import service.FileStorageService;
 
 @Slf4j
 @RequiredArgsConstructor
 public class FileServletConfigurator implements ServletConfigurator {
     private final FileStorageService fileStorageService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final FileContentWriter fileContentWriter;
     private final String tempDir;
+    private final boolean asyncDownloads;
+    private final String downloadCacheControl;
 
     public void configure(ServletContextHandler context) {
         MultipartConfigElement multipartConfig = new MultipartConfigElement(tempDir);
 
-        ServletHolder servletHolder = new ServletHolder(new FileController(fileStorageService));
+        ServletHolder servletHolder = new ServletHolder(new FileController(fileStorageService, chunkedUploadService,
+                fileContentWriter, asyncDownloads, downloadCacheControl));
         servletHolder.getRegistration().setMultipartConfig(multipartConfig);
+        servletHolder.setAsyncSupported(true);
 
         context.addServlet(servletHolder, "/api/v1/files/*");
         log.debug("File servlet configured");
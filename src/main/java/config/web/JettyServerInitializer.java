@@ -5,8 +5,14 @@ import config.web.abstracts.ServerInitializer;
 import config.web.abstracts.ServletConfigurator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import metrics.MetricsRegistry;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 import java.util.List;
 
@@ -19,16 +25,60 @@ class JettyServerInitializer implements ServerInitializer {
 
     @Override
     public void initialize() throws Exception {
-        Server server = new Server(config.getPort());
+        QueuedThreadPool threadPool = createThreadPool();
+        Server server = new Server(threadPool);
+        ServerConnector connector = new ServerConnector(server);
+        connector.setPort(config.getPort());
+        if (config.isMetricsEnabled()) {
+            connector.addBean(new TrafficMetricsListener(MetricsRegistry.getInstance()));
+            registerThreadPoolMetrics(threadPool);
+        }
+        server.addConnector(connector);
+
         ServletContextHandler context = createServletContext();
 
         server.setHandler(context);
+        server.setStopAtShutdown(true);
         server.start();
 
         log.info("Server started at http://localhost:{}", config.getPort());
         server.join();
     }
 
+    private QueuedThreadPool createThreadPool() {
+        QueuedThreadPool threadPool = new QueuedThreadPool(
+                config.getMaxThreads(),
+                config.getMinThreads(),
+                (int) config.getThreadIdleTimeout().toMillis(),
+                new BlockingArrayQueue<>(config.getRequestQueueCapacity(), 0, config.getRequestQueueCapacity()));
+        threadPool.setName("jetty-request");
+
+        if (config.getExecutionMode() == ExecutionMode.VIRTUAL) {
+            if (VirtualThreads.areSupported()) {
+                threadPool.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+                log.info("Requests are handled on virtual threads");
+            } else {
+                log.warn("Virtual threads are not supported by this JVM, using a bounded pool of {} threads",
+                        config.getMaxThreads());
+            }
+        } else {
+            log.info("Requests are handled on a bounded pool of {} threads", config.getMaxThreads());
+        }
+
+        return threadPool;
+    }
+
+    private void registerThreadPoolMetrics(QueuedThreadPool threadPool) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("jetty_threads", "Request pool threads by state", threadPool::getThreads, "state", "total");
+        metrics.gauge("jetty_threads", "Request pool threads by state", threadPool::getBusyThreads, "state", "busy");
+        metrics.gauge("jetty_threads", "Request pool threads by state", threadPool::getIdleThreads, "state", "idle");
+        metrics.gauge("jetty_threads_max", "Configured maximum request pool threads", threadPool::getMaxThreads);
+        metrics.gauge("jetty_queue_size", "Jobs waiting for a request pool thread", threadPool::getQueueSize);
+        metrics.gauge("jetty_thread_utilization", "Fraction of the request pool in use",
+                threadPool::getUtilizationRate);
+    }
+
     private ServletContextHandler createServletContext() {
         ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
         context.setContextPath(config.getContextPath());
@@ -41,6 +91,19 @@ class JettyServerInitializer implements ServerInitializer {
             configurator.configure(context);
         }
 
+        if (config.isCompressionEnabled()) {
+            context.insertHandler(createGzipHandler());
+        }
+
         return context;
     }
-}
\ No newline at end of file
+
+    private GzipHandler createGzipHandler() {
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setMinGzipSize((int) config.getCompressionMinSize());
+        gzipHandler.setIncludedMimeTypes("application/json", "text/plain");
+        gzipHandler.addExcludedPaths("/api/v1/files/download/*");
+        log.info("Compressing JSON responses larger than {} bytes", config.getCompressionMinSize());
+        return gzipHandler;
+    }
+}
@@ -0,0 +1,22 @@
+package config.web;
+
+import config.web.abstracts.ServletConfigurator;
+import controller.MetricsController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import metrics.MetricsRegistry;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+@Slf4j
+@RequiredArgsConstructor
+public class MetricsServletConfigurator implements ServletConfigurator {
+    private final MetricsRegistry metricsRegistry;
+    private final String metricsPath;
+
+    @Override
+    public void configure(ServletContextHandler context) {
+        context.addServlet(new ServletHolder(new MetricsController(metricsRegistry)), metricsPath);
+        log.debug("Metrics servlet configured at {}", metricsPath);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Getter;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 
 @Getter
 @Builder
@@ -14,6 +15,54 @@ public class ServerConfig {
     private final String downloadBaseUrl;
     private final String tempDir;
     private final String contextPath;
+    private final ExecutionMode executionMode;
+    private final int maxThreads;
+    private final int minThreads;
+    private final Duration threadIdleTimeout;
+    private final int requestQueueCapacity;
+    private final boolean asyncDownloads;
+    private final DownloadMode downloadMode;
+    private final String downloadCacheControl;
+    private final StorageMode storageMode;
+    private final StorageLayoutMode storageLayoutMode;
+    private final boolean storageLayoutMigration;
+    private final boolean storageCompression;
+    private final BlobStoreType blobStoreType;
+    private final String s3Endpoint;
+    private final String s3Region;
+    private final String s3Bucket;
+    private final String s3KeyPrefix;
+    private final boolean s3PathStyleAccess;
+    private final long s3PartSize;
+    private final int s3UploadParallelism;
+    private final boolean compressionEnabled;
+    private final long compressionMinSize;
+    private final long compressionVariantCacheMaxSize;
+    private final int compressionVariantHotThreshold;
+    private final long compressionVariantMaxSourceSize;
+    private final String downloadTokenSecret;
+    private final Duration downloadLinkTtl;
+    private final int downloadLinkMaxUses;
+    private final int downloadTokenStoreCapacity;
+    private final Duration downloadCountFlushInterval;
+    private final int downloadCountFlushThreshold;
+    private final long metadataCacheMaxSize;
+    private final long hotContentCacheMaxSize;
+    private final long hotContentCacheMaxEntrySize;
+    private final int hotContentCacheHotThreshold;
+    private final Duration metadataCacheTtl;
+    private final Duration metadataCacheNegativeTtl;
+    private final int cleanupRetentionDays;
+    private final int cleanupBatchSize;
+    private final int cleanupParallelism;
+    private final Duration cleanupTimeBudget;
+    private final int cleanupMaxDeletesPerSecond;
+    private final long uploadChunkSize;
+    private final long uploadMaxChunkSize;
+    private final Duration uploadSessionTtl;
+    private final Duration uploadSessionCleanupInterval;
+    private final boolean metricsEnabled;
+    private final String metricsPath;
 
     public static ServerConfig createDefault() {
         return ServerConfig.builder()
@@ -22,6 +71,56 @@ public class ServerConfig {
                 .downloadBaseUrl("http://localhost:8081/api/v1/files/download")
                 .tempDir(System.getProperty("java.io.tmpdir"))
                 .contextPath("/")
+                .executionMode(ExecutionMode.valueOf(System.getProperty("execution.mode", "VIRTUAL")))
+                .maxThreads(Integer.getInteger("server.max-threads", 200))
+                .minThreads(Integer.getInteger("server.min-threads", 8))
+                .threadIdleTimeout(Duration.ofSeconds(60))
+                .requestQueueCapacity(Integer.getInteger("server.queue-capacity", 1000))
+                .asyncDownloads(Boolean.parseBoolean(System.getProperty("download.async", "true")))
+                .downloadMode(DownloadMode.valueOf(System.getProperty("download.mode", "ZERO_COPY")))
+                .downloadCacheControl(System.getProperty("download.cache-control", "private, no-cache"))
+                .storageMode(StorageMode.valueOf(System.getProperty("storage.mode", "UNIQUE")))
+                .storageLayoutMode(StorageLayoutMode.valueOf(System.getProperty("storage.layout", "SHARDED")))
+                .storageLayoutMigration(Boolean.parseBoolean(System.getProperty("storage.layout.migrate", "false")))
+                .storageCompression(Boolean.parseBoolean(System.getProperty("storage.compression", "false")))
+                .blobStoreType(BlobStoreType.valueOf(System.getProperty("storage.backend", "LOCAL")))
+                .s3Endpoint(System.getProperty("storage.s3.endpoint"))
+                .s3Region(System.getProperty("storage.s3.region", "us-east-1"))
+                .s3Bucket(System.getProperty("storage.s3.bucket", "file-storage"))
+                .s3KeyPrefix(System.getProperty("storage.s3.prefix", ""))
+                .s3PathStyleAccess(Boolean.parseBoolean(System.getProperty("storage.s3.path-style", "false")))
+                .s3PartSize(Long.getLong("storage.s3.part-size-bytes", 16L * 1024 * 1024))
+                .s3UploadParallelism(Integer.getInteger("storage.s3.upload-parallelism", 4))
+                .compressionEnabled(Boolean.parseBoolean(System.getProperty("compression.enabled", "true")))
+                .compressionMinSize(Long.getLong("compression.min-size-bytes", 1024))
+                .compressionVariantCacheMaxSize(Long.getLong("compression.variant-cache.max-size-bytes",
+                        1024L * 1024 * 1024))
+                .compressionVariantHotThreshold(Integer.getInteger("compression.variant-cache.hot-threshold", 2))
+                .compressionVariantMaxSourceSize(Long.getLong("compression.variant-cache.max-source-size-bytes",
+                        256L * 1024 * 1024))
+                .downloadTokenSecret(System.getProperty("download.token.secret", System.getenv("DOWNLOAD_TOKEN_SECRET")))
+                .downloadLinkTtl(Duration.ofHours(24))
+                .downloadLinkMaxUses(Integer.getInteger("download.link.max-uses", 0))
+                .downloadTokenStoreCapacity(100_000)
+                .downloadCountFlushInterval(Duration.ofMillis(Long.getLong("download-count.flush-interval-ms", 1000)))
+                .downloadCountFlushThreshold(Integer.getInteger("download-count.flush-threshold", 10_000))
+                .metadataCacheMaxSize(Long.getLong("metadata-cache.max-size", 10_000))
+                .hotContentCacheMaxSize(Long.getLong("hot-cache.max-size-bytes", 256L * 1024 * 1024))
+                .hotContentCacheMaxEntrySize(Long.getLong("hot-cache.max-entry-size-bytes", 1024 * 1024))
+                .hotContentCacheHotThreshold(Integer.getInteger("hot-cache.hot-threshold", 3))
+                .metadataCacheTtl(Duration.ofMinutes(5))
+                .metadataCacheNegativeTtl(Duration.ofSeconds(30))
+                .cleanupRetentionDays(Integer.getInteger("cleanup.retention-days", 30))
+                .cleanupBatchSize(Integer.getInteger("cleanup.batch-size", 500))
+                .cleanupParallelism(Integer.getInteger("cleanup.parallelism", 4))
+                .cleanupTimeBudget(Duration.ofMinutes(Long.getLong("cleanup.time-budget-minutes", 60)))
+                .cleanupMaxDeletesPerSecond(Integer.getInteger("cleanup.max-deletes-per-second", 200))
+                .uploadChunkSize(Long.getLong("upload.chunk-size-bytes", 8L * 1024 * 1024))
+                .uploadMaxChunkSize(Long.getLong("upload.max-chunk-size-bytes", 128L * 1024 * 1024))
+                .uploadSessionTtl(Duration.ofHours(Long.getLong("upload-session.ttl-hours", 24)))
+                .uploadSessionCleanupInterval(Duration.ofMinutes(15))
+                .metricsEnabled(Boolean.parseBoolean(System.getProperty("metrics.enabled", "true")))
+                .metricsPath(System.getProperty("metrics.path", "/metrics"))
                 .build();
     }
 }
@@ -0,0 +1,6 @@
+package config.web;
+
+public enum StorageLayoutMode {
+    FLAT,
+    SHARDED
+}
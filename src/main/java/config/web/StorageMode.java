@@ -0,0 +1,6 @@
+package config.web;
+
+public enum StorageMode {
+    UNIQUE,
+    CONTENT_ADDRESSED
+}
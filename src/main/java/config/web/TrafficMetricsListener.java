@@ -0,0 +1,51 @@
+package config.web;
+
+import metrics.MetricsRegistry;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class TrafficMetricsListener implements HttpChannel.Listener {
+    private static final String BYTES_METRIC = "http_bytes_total";
+    private static final String BYTES_HELP = "Request and response body bytes by route";
+    private static final String DOWNLOAD_PREFIX = "/api/v1/files/download";
+    private static final String UPLOAD_PREFIX = "/api/v1/files/upload";
+
+    private final LongAdder uploadIn;
+    private final LongAdder uploadOut;
+    private final LongAdder downloadIn;
+    private final LongAdder downloadOut;
+    private final LongAdder otherIn;
+    private final LongAdder otherOut;
+
+    TrafficMetricsListener(MetricsRegistry metrics) {
+        this.uploadIn = metrics.counter(BYTES_METRIC, BYTES_HELP, "route", "upload", "direction", "in");
+        this.uploadOut = metrics.counter(BYTES_METRIC, BYTES_HELP, "route", "upload", "direction", "out");
+        this.downloadIn = metrics.counter(BYTES_METRIC, BYTES_HELP, "route", "download", "direction", "in");
+        this.downloadOut = metrics.counter(BYTES_METRIC, BYTES_HELP, "route", "download", "direction", "out");
+        this.otherIn = metrics.counter(BYTES_METRIC, BYTES_HELP, "route", "other", "direction", "in");
+        this.otherOut = metrics.counter(BYTES_METRIC, BYTES_HELP, "route", "other", "direction", "out");
+    }
+
+    @Override
+    public void onComplete(Request request) {
+        long received = request.getHttpInput().getContentReceived();
+        long written = request.getHttpChannel().getBytesWritten();
+        String uri = request.getRequestURI();
+
+        if (uri == null) {
+            otherIn.add(received);
+            otherOut.add(written);
+        } else if (uri.startsWith(DOWNLOAD_PREFIX)) {
+            downloadIn.add(received);
+            downloadOut.add(written);
+        } else if (uri.startsWith(UPLOAD_PREFIX)) {
+            uploadIn.add(received);
+            uploadOut.add(written);
+        } else {
+            otherIn.add(received);
+            otherOut.add(written);
+        }
+    }
+}
@@ -17,9 +17,11 @@ public class CorsFilter implements Filter {
         if (response instanceof HttpServletResponse) {
             HttpServletResponse resp = (HttpServletResponse) response;
             resp.setHeader("Access-Control-Allow-Origin", "*");
-            resp.setHeader("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
-            resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
-            resp.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
+            resp.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, OPTIONS");
+            resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization, Range, If-Range, " +
+                    "If-None-Match, If-Modified-Since, X-Chunk-SHA256");
+            resp.setHeader("Access-Control-Expose-Headers",
+                    "Content-Disposition, Content-Range, Accept-Ranges, ETag, Last-Modified, Content-Encoding");
         }
         if (request instanceof jakarta.servlet.http.HttpServletRequest) {
             jakarta.servlet.http.HttpServletRequest req = (jakarta.servlet.http.HttpServletRequest) request;
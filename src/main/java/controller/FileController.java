@@ -1,19 +1,33 @@
 package controller;
 
+import controller.handlers.ArchiveHandler;
+import controller.handlers.BatchHandler;
+import controller.handlers.ChunkedUploadHandler;
 import controller.handlers.DownloadHandler;
 import controller.handlers.GetFilesHandler;
 import controller.handlers.GetUrlHandler;
+import controller.handlers.StreamingUploadHandler;
 import controller.handlers.UpdateDownloadCountHandler;
 import controller.handlers.UploadHandler;
 import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.routing.Router;
+import controller.util.JsonRequestReader;
 import controller.util.JsonResponseWriter;
+import controller.util.abstracts.FileContentWriter;
+import controller.util.abstracts.RequestReader;
 import controller.util.abstracts.ResponseWriter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import service.ChunkedUploadService;
 import service.FileStorageService;
 
 import java.io.IOException;
@@ -24,25 +38,53 @@ import java.util.List;
 public class FileController extends HttpServlet {
 
     private final FileStorageService fileStorageService;
-    private final List<FileRequestHandler> requestHandlers;
+    private final ChunkedUploadService chunkedUploadService;
+    private final Router<Endpoint> router;
+    private final RequestReader requestReader;
     private final ResponseWriter responseWriter;
+    private final FileContentWriter fileContentWriter;
+    private final boolean asyncDownloads;
+    private final String downloadCacheControl;
 
-    public FileController(FileStorageService fileStorageService) {
+    public FileController(FileStorageService fileStorageService, ChunkedUploadService chunkedUploadService,
+                          FileContentWriter fileContentWriter, boolean asyncDownloads, String downloadCacheControl) {
         super();
         this.fileStorageService = fileStorageService;
+        this.chunkedUploadService = chunkedUploadService;
+        this.fileContentWriter = fileContentWriter;
+        this.asyncDownloads = asyncDownloads;
+        this.downloadCacheControl = downloadCacheControl;
+        this.requestReader = new JsonRequestReader();
         this.responseWriter = new JsonResponseWriter();
-        this.requestHandlers = initializeHandlers();
+        this.router = initializeRouter(initializeHandlers(), MetricsRegistry.getInstance());
     }
+
     private List<FileRequestHandler> initializeHandlers() {
         return List.of(
                 new GetFilesHandler(fileStorageService, responseWriter),
-                new DownloadHandler(fileStorageService),
+                new DownloadHandler(fileStorageService, fileContentWriter, asyncDownloads, downloadCacheControl),
                 new UploadHandler(fileStorageService, responseWriter),
+                new StreamingUploadHandler(fileStorageService, responseWriter),
+                new ChunkedUploadHandler(chunkedUploadService, responseWriter),
                 new GetUrlHandler(fileStorageService, responseWriter),
-                new UpdateDownloadCountHandler(fileStorageService, responseWriter)
+                new UpdateDownloadCountHandler(fileStorageService, responseWriter),
+                new BatchHandler(fileStorageService, requestReader, responseWriter),
+                new ArchiveHandler(fileStorageService, requestReader)
         );
     }
 
+    private Router<Endpoint> initializeRouter(List<FileRequestHandler> handlers, MetricsRegistry metricsRegistry) {
+        Router<Endpoint> router = new Router<>();
+        for (FileRequestHandler handler : handlers) {
+            Endpoint endpoint = new Endpoint(handler, metricsRegistry.histogram("http_request_duration_seconds",
+                    "Time spent in file API request handlers", "handler", handler.getClass().getSimpleName()));
+            for (Route route : handler.getRoutes()) {
+                router.add(route, endpoint);
+            }
+        }
+        return router;
+    }
+
     @Override
     public void init() throws ServletException {
         super.init();
@@ -66,11 +108,21 @@ public class FileController extends HttpServlet {
         handleRequest(req, resp);
     }
 
+    @Override
+    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String path = req.getServletPath();
+        if (!path.equals("/api/v1/files") ) {
+            return;
+        }
+        handleRequest(req, resp);
+    }
+
     private void handleRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        long started = System.nanoTime();
+        RouteMatch<Endpoint> match = router.match(req.getMethod(), req.getPathInfo());
         try {
-            FileRequestHandler handler = findHandler(req);
-            if (handler != null) {
-                handler.handle(req, resp);
+            if (match != null) {
+                match.getTarget().handler.handle(req, resp, match);
             } else {
                 resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
             }
@@ -82,13 +134,16 @@ public class FileController extends HttpServlet {
             log.error("Servlet error", e);
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             responseWriter.writeTextResponse(resp, "Error processing request");
+        } finally {
+            if (match != null) {
+                match.getTarget().latency.recordSince(started);
+            }
         }
     }
 
-    private FileRequestHandler findHandler(HttpServletRequest req) {
-        return requestHandlers.stream()
-                .filter(handler -> handler.canHandle(req))
-                .findFirst()
-                .orElse(null);
+    @RequiredArgsConstructor
+    private static class Endpoint {
+        private final FileRequestHandler handler;
+        private final LatencyHistogram latency;
     }
 }
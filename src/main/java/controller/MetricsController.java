@@ -0,0 +1,33 @@
+package controller;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+@Slf4j
+public class MetricsController extends HttpServlet {
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        super();
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        StringBuilder body = new StringBuilder(16 * 1024);
+        metricsRegistry.writePrometheus(body);
+
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(PROMETHEUS_CONTENT_TYPE);
+        resp.setHeader("Cache-Control", "no-store");
+        resp.getWriter().write(body.toString());
+        log.debug("Metrics scraped ({} chars)", body.length());
+    }
+}
@@ -0,0 +1,98 @@
+package controller.handlers;
+
+import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.util.ArchiveEntry;
+import controller.util.ArchiveFormat;
+import controller.util.abstracts.ArchiveWriter;
+import controller.util.abstracts.RequestReader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.FileDownloadResponse;
+import service.FileStorageService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@RequiredArgsConstructor
+public class ArchiveHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("POST", "/archive");
+    private static final int MAX_ARCHIVE_FILES = 1000;
+
+    private final FileStorageService fileStorageService;
+    private final RequestReader requestReader;
+
+    @Override
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
+    }
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
+        ArchiveFormat format = ArchiveFormat.fromName(req.getParameter("format"));
+        List<String> ids = requestReader.readIdList(req, MAX_ARCHIVE_FILES);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No files requested");
+        }
+
+        List<ArchiveEntry> entries = toEntries(fileStorageService.prepareDownloads(ids));
+        format.validate(entries);
+        long length = format.predictLength(entries);
+
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(format.getContentType());
+        resp.setHeader("Content-Disposition", "attachment; filename=\"files" + format.getFileExtension() + "\"");
+        resp.setHeader("Cache-Control", "no-store");
+        if (length >= 0) {
+            resp.setContentLengthLong(length);
+        }
+
+        ArchiveWriter writer = format.open(resp.getOutputStream());
+        for (ArchiveEntry entry : entries) {
+            writer.write(entry);
+        }
+        writer.finish();
+        log.info("Archive of {} files streamed as {}", entries.size(), format);
+    }
+
+    private List<ArchiveEntry> toEntries(List<FileDownloadResponse> downloads) {
+        List<ArchiveEntry> entries = new ArrayList<>(downloads.size());
+        Set<String> names = new HashSet<>();
+        for (FileDownloadResponse download : downloads) {
+            long size = download.getFileSize();
+            entries.add(new ArchiveEntry(uniqueName(download.getOriginalFileName(), names), size,
+                    download.getLastModified(), download.isCompressible(),
+                    () -> fileStorageService.openContent(download, 0, size), download.getContentCrc32()));
+        }
+        return entries;
+    }
+
+    private String uniqueName(String originalFileName, Set<String> names) {
+        String name = originalFileName == null || originalFileName.isBlank()
+                ? "file"
+                : originalFileName.replace('/', '_').replace('\\', '_');
+        if (name.equals(".") || name.equals("..")) {
+            name = "file";
+        }
+        if (names.add(name)) {
+            return name;
+        }
+
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 1; ; i++) {
+            String candidate = base + " (" + i + ")" + extension;
+            if (names.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+}
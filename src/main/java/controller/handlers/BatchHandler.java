@@ -0,0 +1,54 @@
+package controller.handlers;
+
+import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.util.abstracts.RequestReader;
+import controller.util.abstracts.ResponseWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.BatchItemResult;
+import service.FileStorageService;
+
+import java.io.IOException;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class BatchHandler implements FileRequestHandler {
+    private static final Route GET_URLS_ROUTE = Route.of("POST", "/batch/get-url");
+    private static final Route METADATA_ROUTE = Route.of("POST", "/batch/metadata");
+    private static final Route DOWNLOAD_COUNTS_ROUTE = Route.of("POST", "/batch/update-download-count");
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final FileStorageService fileStorageService;
+    private final RequestReader requestReader;
+    private final ResponseWriter responseWriter;
+
+    @Override
+    public List<Route> getRoutes() {
+        return List.of(GET_URLS_ROUTE, METADATA_ROUTE, DOWNLOAD_COUNTS_ROUTE);
+    }
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
+        List<String> ids = requestReader.readIdList(req, MAX_BATCH_SIZE);
+        Route route = match.getRoute();
+        log.debug("Processing batch request {} for {} ids", route, ids.size());
+
+        List<BatchItemResult> results;
+        if (route == GET_URLS_ROUTE) {
+            results = fileStorageService.generateTemporaryDownloadUrls(ids);
+        } else if (route == METADATA_ROUTE) {
+            results = fileStorageService.findFiles(ids);
+        } else if (route == DOWNLOAD_COUNTS_ROUTE) {
+            results = fileStorageService.incrementDownloadCounts(ids);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        responseWriter.writeJsonResponse(resp, results);
+    }
+}
@@ -0,0 +1,77 @@
+package controller.handlers;
+
+import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.util.abstracts.ResponseWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.FileResponse;
+import model.dto.UploadSessionResponse;
+import service.ChunkedUploadService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkedUploadHandler implements FileRequestHandler {
+    private static final Route INITIATE_ROUTE = Route.of("POST", "/uploads");
+    private static final Route STATUS_ROUTE = Route.of("GET", "/uploads/{id}");
+    private static final Route CHUNK_ROUTE = Route.of("PUT", "/uploads/{id}/chunks/{index}");
+    private static final Route COMPLETE_ROUTE = Route.of("POST", "/uploads/{id}/complete");
+    private static final String CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    private final ChunkedUploadService chunkedUploadService;
+    private final ResponseWriter responseWriter;
+
+    @Override
+    public List<Route> getRoutes() {
+        return List.of(INITIATE_ROUTE, STATUS_ROUTE, CHUNK_ROUTE, COMPLETE_ROUTE);
+    }
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
+        Route route = match.getRoute();
+
+        if (route == INITIATE_ROUTE) {
+            initiate(req, resp);
+        } else if (route == STATUS_ROUTE) {
+            responseWriter.writeJsonResponse(resp, chunkedUploadService.getStatus(match.getUuidParameter("id")));
+        } else if (route == CHUNK_ROUTE) {
+            writeChunk(req, resp, match.getUuidParameter("id"), match.getIntParameter("index"));
+        } else if (route == COMPLETE_ROUTE) {
+            FileResponse response = chunkedUploadService.complete(match.getUuidParameter("id"));
+            responseWriter.writeJsonResponse(resp, response);
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private void initiate(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String fileName = req.getParameter("name");
+        if (fileName == null || fileName.isEmpty()) {
+            fileName = "uploaded_file_" + System.currentTimeMillis();
+        }
+        String size = req.getParameter("size");
+        if (size == null) {
+            throw new IllegalArgumentException("Missing 'size' parameter");
+        }
+        String chunkSize = req.getParameter("chunkSize");
+
+        UploadSessionResponse response = chunkedUploadService.initiate(fileName, req.getParameter("contentType"),
+                Long.parseLong(size), chunkSize == null ? null : Long.parseLong(chunkSize));
+        responseWriter.writeJsonResponse(resp, response);
+    }
+
+    private void writeChunk(HttpServletRequest req, HttpServletResponse resp,
+                            UUID sessionId, int chunkIndex) throws IOException {
+        log.debug("Receiving chunk {} of upload session {}", chunkIndex, sessionId);
+        String checksum = chunkedUploadService.writeChunk(sessionId, chunkIndex, req.getInputStream(),
+                req.getHeader(CHECKSUM_HEADER));
+        responseWriter.writeJsonResponse(resp, checksum);
+    }
+}
@@ -1,65 +1,355 @@
 package controller.handlers;
 
 import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.util.AcceptEncodingParser;
+import controller.util.ByteRange;
+import controller.util.RangeHeaderParser;
+import controller.util.abstracts.FileContentWriter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import model.dto.FileDownloadResponse;
+import service.ContentCoding;
 import service.FileStorageService;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
 @RequiredArgsConstructor
 public class DownloadHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("GET", "/download/{token}");
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final FileStorageService fileStorageService;
+    private final FileContentWriter fileContentWriter;
+    private final boolean asyncWrites;
+    private final String cacheControl;
 
     @Override
-    public boolean canHandle(HttpServletRequest req) {
-        return "GET".equalsIgnoreCase(req.getMethod()) &&
-                req.getPathInfo() != null &&
-                req.getPathInfo().startsWith("/download");
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
     }
 
     @Override
-    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        String uuidStr = extractUuidFromPath(req.getPathInfo());
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
+        String token = match.getParameter("token");
 
         try {
-            UUID temporaryLinkId = UUID.fromString(uuidStr);
-            log.debug("Processing download request for temporary link: {}", temporaryLinkId);
+            log.debug("Processing download request for temporary link");
 
-            FileDownloadResponse downloadResponse = fileStorageService.downloadFile(temporaryLinkId);
+            FileDownloadResponse downloadResponse = fileStorageService.downloadFile(token);
             setupDownloadResponse(resp, downloadResponse);
 
-            Files.copy(downloadResponse.getFilePath(), resp.getOutputStream());
+            ContentCoding coding = selectCoding(req, downloadResponse);
+            if (isNotModified(req, downloadResponse, coding)) {
+                writeNotModified(resp, downloadResponse, coding);
+                log.debug("File not modified: {}", downloadResponse.getOriginalFileName());
+                return;
+            }
+
+            List<ByteRange> ranges = resolveRanges(req, downloadResponse);
+            if (coversFullContent(ranges, downloadResponse)) {
+                fileStorageService.consumeDownloadUse(downloadResponse);
+            }
+
+            if (ranges == null && coding != null) {
+                if (coding == downloadResponse.getStorageCoding()) {
+                    writeStoredContent(resp, downloadResponse);
+                } else {
+                    writeCompressedContent(resp, downloadResponse, coding);
+                }
+                log.info("File downloaded successfully with {} coding: {}",
+                        coding.getToken(), downloadResponse.getOriginalFileName());
+                return;
+            }
+
+            if (asyncWrites && isStoredAsIdentity(downloadResponse) && (ranges == null || ranges.size() == 1)) {
+                startAsyncWrite(req, resp, downloadResponse, ranges == null ? null : ranges.get(0));
+                log.debug("Asynchronous download started: {}", downloadResponse.getOriginalFileName());
+                return;
+            }
+
+            if (ranges == null) {
+                writeFullContent(resp, downloadResponse);
+            } else if (ranges.isEmpty()) {
+                writeRangeNotSatisfiable(resp, downloadResponse);
+                return;
+            } else if (ranges.size() == 1) {
+                writeSingleRange(resp, downloadResponse, ranges.get(0));
+            } else {
+                writeMultipleRanges(resp, downloadResponse, ranges);
+            }
             resp.getOutputStream().flush();
 
             log.info("File downloaded successfully: {}", downloadResponse.getOriginalFileName());
 
         } catch (IllegalArgumentException e) {
-            log.warn("Invalid UUID in download URL: {}", uuidStr);
-            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid download URL format");
+            log.warn("Rejected download link: {}", e.getMessage());
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid or expired download URL");
         } catch (Exception e) {
             log.error("Error during file download", e);
             resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "File download failed");
         }
     }
 
-    private String extractUuidFromPath(String pathInfo) {
-        String[] pathParts = pathInfo.split("/");
-        return pathParts.length > 1 ? pathParts[pathParts.length - 1] : "";
-    }
-
     private void setupDownloadResponse(HttpServletResponse resp, FileDownloadResponse downloadResponse) {
         resp.setContentType(downloadResponse.getContentType());
         resp.setHeader("Content-Disposition",
                 "attachment; filename=\"" + downloadResponse.getOriginalFileName() + "\"");
         resp.setHeader("Access-Control-Allow-Origin", "*");
-        resp.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
+        resp.setHeader("Access-Control-Expose-Headers",
+                "Content-Disposition, Content-Range, Accept-Ranges, ETag, Last-Modified, Content-Encoding");
+        resp.setHeader("Accept-Ranges", "bytes");
+        resp.setHeader("ETag", downloadResponse.getEntityTag());
+        resp.setDateHeader("Last-Modified", downloadResponse.getLastModified().toEpochMilli());
+        if (cacheControl != null && !cacheControl.isEmpty()) {
+            resp.setHeader("Cache-Control", cacheControl);
+        }
+        if (downloadResponse.isCompressible() || downloadResponse.getStorageCoding() != null) {
+            resp.setHeader("Vary", "Accept-Encoding");
+        }
+    }
+
+    private boolean isStoredAsIdentity(FileDownloadResponse downloadResponse) {
+        return downloadResponse.getFilePath() != null && downloadResponse.getStorageCoding() == null;
+    }
+
+    private ContentCoding selectCoding(HttpServletRequest req, FileDownloadResponse downloadResponse) {
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        ContentCoding storageCoding = downloadResponse.getStorageCoding();
+        if (storageCoding != null && AcceptEncodingParser.accepts(acceptEncoding, storageCoding)) {
+            return storageCoding;
+        }
+        if (!downloadResponse.isCompressible()) {
+            return null;
+        }
+        return AcceptEncodingParser.negotiate(acceptEncoding);
+    }
+
+    private boolean isNotModified(HttpServletRequest req, FileDownloadResponse downloadResponse,
+                                  ContentCoding coding) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            String entityTag = coding != null
+                    ? toVariantEntityTag(downloadResponse.getEntityTag(), coding)
+                    : downloadResponse.getEntityTag();
+            return matchesEntityTag(ifNoneMatch, entityTag);
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0
+                && downloadResponse.getLastModified().getEpochSecond() <= ifModifiedSince / 1000;
+    }
+
+    private boolean matchesEntityTag(String ifNoneMatch, String entityTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeNotModified(HttpServletResponse resp, FileDownloadResponse downloadResponse,
+                                  ContentCoding coding) {
+        resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        if (coding != null) {
+            resp.setHeader("ETag", toVariantEntityTag(downloadResponse.getEntityTag(), coding));
+        }
+        resp.setHeader("Content-Disposition", null);
+        resp.setContentType(null);
+    }
+
+    private void writeStoredContent(HttpServletResponse resp, FileDownloadResponse downloadResponse)
+            throws IOException {
+        ContentCoding storageCoding = downloadResponse.getStorageCoding();
+        resp.setHeader("Content-Encoding", storageCoding.getToken());
+        resp.setHeader("ETag", toVariantEntityTag(downloadResponse.getEntityTag(), storageCoding));
+        resp.setContentLengthLong(downloadResponse.getStoredSize());
+
+        if (downloadResponse.getContent() != null) {
+            fileContentWriter.write(resp.getOutputStream(), downloadResponse.getContent().duplicate());
+            return;
+        }
+        if (downloadResponse.getFilePath() != null) {
+            fileContentWriter.write(resp.getOutputStream(), downloadResponse.getFilePath(), 0,
+                    downloadResponse.getStoredSize());
+            return;
+        }
+        try (InputStream content = fileStorageService.openStoredContent(downloadResponse)) {
+            copy(content, resp.getOutputStream());
+        }
+    }
+
+    private void writeCompressedContent(HttpServletResponse resp, FileDownloadResponse downloadResponse,
+                                        ContentCoding coding) throws IOException {
+        resp.setHeader("Content-Encoding", coding.getToken());
+        resp.setHeader("ETag", toVariantEntityTag(downloadResponse.getEntityTag(), coding));
+
+        Path variant = fileStorageService.findCompressedVariant(downloadResponse, coding);
+        if (variant != null) {
+            try {
+                long size = Files.size(variant);
+                resp.setContentLengthLong(size);
+                fileContentWriter.write(resp.getOutputStream(), variant, 0, size);
+                return;
+            } catch (NoSuchFileException e) {
+                log.debug("Compressed variant evicted while serving, compressing on the fly: {}", variant);
+                resp.setContentLengthLong(-1);
+            }
+        }
+
+        try (OutputStream out = coding.encode(resp.getOutputStream())) {
+            writeContent(out, downloadResponse, 0, downloadResponse.getFileSize());
+        }
+    }
+
+    private String toVariantEntityTag(String entityTag, ContentCoding coding) {
+        return entityTag.substring(0, entityTag.length() - 1) + "-" + coding.getToken() + "\"";
+    }
+
+    private List<ByteRange> resolveRanges(HttpServletRequest req, FileDownloadResponse downloadResponse) {
+        String rangeHeader = req.getHeader("Range");
+        if (rangeHeader == null) {
+            return null;
+        }
+
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange != null && !ifRange.trim().equals(downloadResponse.getEntityTag())) {
+            log.debug("If-Range validator {} does not match, sending full content", ifRange);
+            return null;
+        }
+
+        return RangeHeaderParser.parse(rangeHeader, downloadResponse.getFileSize());
+    }
+
+    private boolean coversFullContent(List<ByteRange> ranges, FileDownloadResponse downloadResponse) {
+        if (ranges == null) {
+            return true;
+        }
+        return ranges.size() == 1 && ranges.get(0).getStart() == 0
+                && ranges.get(0).getLength() == downloadResponse.getFileSize();
+    }
+
+    private void writeFullContent(HttpServletResponse resp, FileDownloadResponse downloadResponse) throws IOException {
         resp.setContentLengthLong(downloadResponse.getFileSize());
+        writeContent(resp.getOutputStream(), downloadResponse, 0, downloadResponse.getFileSize());
+    }
+
+    private void startAsyncWrite(HttpServletRequest req, HttpServletResponse resp,
+                                 FileDownloadResponse downloadResponse, ByteRange range) throws IOException {
+        long position = 0;
+        long count = downloadResponse.getFileSize();
+        if (range != null) {
+            resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            resp.setHeader("Content-Range", range.toContentRange(downloadResponse.getFileSize()));
+            position = range.getStart();
+            count = range.getLength();
+        }
+        resp.setContentLengthLong(count);
+
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(0);
+        try {
+            fileContentWriter.writeAsync(asyncContext, downloadResponse.getFilePath(), position, count);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not start asynchronous download", e);
+            resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "File download failed");
+            asyncContext.complete();
+        }
+    }
+
+    private void writeRangeNotSatisfiable(HttpServletResponse resp, FileDownloadResponse downloadResponse) {
+        resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        resp.setHeader("Content-Range", "bytes */" + downloadResponse.getFileSize());
+        resp.setContentLengthLong(0);
+    }
+
+    private void writeSingleRange(HttpServletResponse resp, FileDownloadResponse downloadResponse,
+                                  ByteRange range) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        resp.setHeader("Content-Range", range.toContentRange(downloadResponse.getFileSize()));
+        resp.setContentLengthLong(range.getLength());
+        writeContent(resp.getOutputStream(), downloadResponse, range.getStart(), range.getLength());
+    }
+
+    private void writeMultipleRanges(HttpServletResponse resp, FileDownloadResponse downloadResponse,
+                                     List<ByteRange> ranges) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n" +
+                    "Content-Type: " + downloadResponse.getContentType() + "\r\n" +
+                    "Content-Range: " + range.toContentRange(downloadResponse.getFileSize()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range.getLength();
+        }
+        byte[] closingBoundary = ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += CRLF.length + closingBoundary.length;
+
+        resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        resp.setContentType("multipart/byteranges; boundary=" + boundary);
+        resp.setContentLengthLong(contentLength);
+
+        ServletOutputStream out = resp.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            writeContent(out, downloadResponse, range.getStart(), range.getLength());
+        }
+        out.write(CRLF);
+        out.write(closingBoundary);
+    }
+
+    private void writeContent(OutputStream out, FileDownloadResponse downloadResponse,
+                              long position, long count) throws IOException {
+        if (downloadResponse.getStorageCoding() == null && out instanceof ServletOutputStream servletOut) {
+            if (downloadResponse.getContent() != null) {
+                fileContentWriter.write(servletOut, downloadResponse.getContent().slice((int) position, (int) count));
+                return;
+            }
+            if (downloadResponse.getFilePath() != null) {
+                fileContentWriter.write(servletOut, downloadResponse.getFilePath(), position, count);
+                return;
+            }
+        }
+        try (InputStream content = fileStorageService.openContent(downloadResponse, position, count)) {
+            copy(content, out);
+        }
+    }
+
+    private void copy(InputStream content, OutputStream out) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
     }
 }
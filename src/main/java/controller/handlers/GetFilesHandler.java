@@ -1,33 +1,102 @@
 package controller.handlers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
 import controller.util.abstracts.ResponseWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import model.dto.FileResponse;
+import model.dto.FileListQuery;
 import service.FileStorageService;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Slf4j
 @RequiredArgsConstructor
 public class GetFilesHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("GET", "");
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
     private final FileStorageService fileStorageService;
     private final ResponseWriter responseWriter;
 
     @Override
-    public boolean canHandle(HttpServletRequest req) {
-        return "GET".equalsIgnoreCase(req.getMethod()) &&
-                req.getPathInfo() == null;
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
     }
 
     @Override
-    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        log.debug("Processing get all files request");
-        List<FileResponse> files = fileStorageService.getFiles();
-        responseWriter.writeJsonResponse(resp, files);
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
+        log.debug("Processing get files page request");
+        FileListQuery query = parseQuery(req);
+        fileStorageService.applyCursor(query, req.getParameter("cursor"));
+
+        JsonGenerator generator = responseWriter.startJsonStream(resp);
+        try {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+
+            String nextCursor = fileStorageService.streamFiles(query, file -> {
+                try {
+                    responseWriter.writeJsonValue(generator, file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", nextCursor);
+            generator.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+    }
+
+    private FileListQuery parseQuery(HttpServletRequest req) {
+        try {
+            return FileListQuery.builder()
+                    .limit(parseLimit(req.getParameter("limit")))
+                    .contentType(emptyToNull(req.getParameter("contentType")))
+                    .minSize(parseLong(req.getParameter("minSize")))
+                    .maxSize(parseLong(req.getParameter("maxSize")))
+                    .uploadedFrom(parseDate(req.getParameter("uploadedFrom")))
+                    .uploadedTo(parseDate(req.getParameter("uploadedTo")))
+                    .build();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid query parameter: " + e.getMessage());
+        }
+    }
+
+    private int parseLimit(String value) {
+        if (value == null || value.isEmpty()) {
+            return DEFAULT_LIMIT;
+        }
+        int limit = Integer.parseInt(value);
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private Long parseLong(String value) {
+        return value == null || value.isEmpty() ? null : Long.parseLong(value);
+    }
+
+    private LocalDateTime parseDate(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    private String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package controller.handlers;
 
 import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
 import controller.util.abstracts.ResponseWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,22 +11,23 @@ import lombok.extern.slf4j.Slf4j;
 import service.FileStorageService;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
 @RequiredArgsConstructor
 public class GetUrlHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("POST", "/get-url");
     private final FileStorageService fileStorageService;
     private final ResponseWriter responseWriter;
 
     @Override
-    public boolean canHandle(HttpServletRequest req) {
-        return "POST".equalsIgnoreCase(req.getMethod()) &&
-                "/get-url".equals(req.getPathInfo());
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
     }
 
     @Override
-    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
         log.debug("Processing get temporary link for download request");
 
         String uuid = req.getParameter("uuid");
@@ -0,0 +1,117 @@
+package controller.handlers;
+
+import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
+import controller.util.abstracts.ResponseWriter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.FileResponse;
+import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.UrlEncoded;
+import service.FileStorageService;
+import service.StreamingUpload;
+
+import java.io.IOException;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class StreamingUploadHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("PUT", "/upload");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final ResponseWriter responseWriter;
+
+    @Override
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
+    }
+
+    @Override
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
+        String fileName = getFileName(req);
+        log.debug("Starting streaming upload: {} ({} bytes declared)", fileName, req.getContentLengthLong());
+
+        StreamingUpload upload = fileStorageService.openUpload(fileName, req.getContentType());
+
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(0);
+
+        ServletInputStream input = req.getInputStream();
+        input.setReadListener(new UploadReadListener(input, upload, asyncContext, resp));
+    }
+
+    private String getFileName(HttpServletRequest req) {
+        // getParameter would also parse a form-encoded body, so only the query string is consulted
+        String fileName = null;
+        if (req.getQueryString() != null) {
+            MultiMap<String> parameters = new MultiMap<>();
+            UrlEncoded.decodeUtf8To(req.getQueryString(), parameters);
+            fileName = parameters.getValue("name", 0);
+        }
+        return (fileName == null || fileName.isEmpty()) ?
+                "uploaded_file_" + System.currentTimeMillis() : fileName;
+    }
+
+    @RequiredArgsConstructor
+    private class UploadReadListener implements ReadListener {
+        private final ServletInputStream input;
+        private final StreamingUpload upload;
+        private final AsyncContext asyncContext;
+        private final HttpServletResponse resp;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            while (input.isReady() && !input.isFinished()) {
+                int read = input.read(buffer);
+                if (read > 0) {
+                    upload.write(buffer, 0, read);
+                }
+            }
+        }
+
+        @Override
+        public void onAllDataRead() throws IOException {
+            try {
+                FileResponse response = fileStorageService.completeUpload(upload);
+                responseWriter.writeJsonResponse(resp, response);
+                log.debug("File uploaded successfully: {} ({} bytes)",
+                        response.getOriginalFileName(), response.getFileSize());
+            } catch (IllegalArgumentException e) {
+                log.debug("Bad streaming upload: {}", e.getMessage());
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                responseWriter.writeTextResponse(resp, e.getMessage());
+            } catch (Exception e) {
+                log.error("Error completing streaming upload: {}", upload.getOriginalFileName(), e);
+                resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                responseWriter.writeTextResponse(resp, "Error processing request");
+            } finally {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.error("Streaming upload failed: {}", upload.getOriginalFileName(), t);
+            upload.abort();
+            try {
+                if (!resp.isCommitted()) {
+                    resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    responseWriter.writeTextResponse(resp, "Upload failed");
+                }
+            } catch (IOException e) {
+                log.debug("Could not report upload failure", e);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package controller.handlers;
 
 import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
 import controller.util.abstracts.ResponseWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,23 +11,24 @@ import lombok.extern.slf4j.Slf4j;
 import service.FileStorageService;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
 @RequiredArgsConstructor
 public class UpdateDownloadCountHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("POST", "/update-download-count");
     private final FileStorageService fileStorageService;
     private final ResponseWriter responseWriter;
 
     @Override
-    public boolean canHandle(HttpServletRequest req) {
-        return "POST".equalsIgnoreCase(req.getMethod()) &&
-                "/update-download-count".equals(req.getPathInfo());
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
     }
 
     @Override
-    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException {
         String uuid = req.getParameter("uuid");
 
         if (uuid == null || uuid.trim().isEmpty()) {
@@ -1,6 +1,8 @@
 package controller.handlers;
 
 import controller.handlers.abstracts.FileRequestHandler;
+import controller.routing.Route;
+import controller.routing.RouteMatch;
 import controller.util.abstracts.ResponseWriter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,21 +14,22 @@ import model.dto.FileResponse;
 import service.FileStorageService;
 
 import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @RequiredArgsConstructor
 public class UploadHandler implements FileRequestHandler {
+    private static final Route ROUTE = Route.of("POST", "/upload");
     private final FileStorageService fileStorageService;
     private final ResponseWriter responseWriter;
 
     @Override
-    public boolean canHandle(HttpServletRequest req) {
-        return "POST".equalsIgnoreCase(req.getMethod()) &&
-                "/upload".equals(req.getPathInfo());
+    public List<Route> getRoutes() {
+        return List.of(ROUTE);
     }
 
     @Override
-    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException {
+    public void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match) throws IOException, ServletException {
         validateMultipartRequest(req);
 
         Part filePart = req.getPart("file");
@@ -1,12 +1,16 @@
 package controller.handlers.abstracts;
 
+import controller.routing.Route;
+import controller.routing.RouteMatch;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.List;
 
 public interface FileRequestHandler {
-    boolean canHandle(HttpServletRequest req);
-    void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException;
+    List<Route> getRoutes();
+    void handle(HttpServletRequest req, HttpServletResponse resp, RouteMatch<?> match)
+            throws IOException, ServletException;
 }
@@ -0,0 +1,83 @@
+package controller.routing;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Route {
+    @Getter
+    private final String method;
+    @Getter
+    private final String pattern;
+    private final String[] segments;
+    private final int[] parameterSegments;
+    private final String[] parameterNames;
+
+    private Route(String method, String pattern) {
+        if (!pattern.isEmpty() && !pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+        }
+        this.method = method;
+        this.pattern = pattern;
+        this.segments = pattern.isEmpty() ? new String[0] : pattern.substring(1).split("/", -1);
+
+        List<Integer> positions = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Route pattern has an empty segment: " + pattern);
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty() || names.contains(name)) {
+                    throw new IllegalArgumentException("Invalid parameter '" + segment + "' in route " + pattern);
+                }
+                positions.add(i);
+                names.add(name);
+                segments[i] = null;
+            }
+        }
+        this.parameterSegments = positions.stream().mapToInt(Integer::intValue).toArray();
+        this.parameterNames = names.toArray(new String[0]);
+    }
+
+    /**
+     * An empty pattern matches requests to the servlet root, i.e. without path info.
+     * Segments written as {name} capture one non-empty path segment.
+     */
+    public static Route of(String method, String pattern) {
+        return new Route(method, pattern);
+    }
+
+    public int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    String[] segments() {
+        return segments;
+    }
+
+    int[] parameterSegments() {
+        return parameterSegments;
+    }
+
+    boolean isParameter(int segment) {
+        return segments[segment] == null;
+    }
+
+    int parameterIndex(String name) {
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Route " + pattern + " has no parameter '" + name + "'");
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + pattern;
+    }
+}
@@ -0,0 +1,35 @@
+package controller.routing;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+public final class RouteMatch<T> {
+    @Getter
+    private final Route route;
+    @Getter
+    private final T target;
+    private final String path;
+    private final int[] parameterBounds;
+
+    RouteMatch(Route route, T target, String path, int[] parameterBounds) {
+        this.route = route;
+        this.target = target;
+        this.path = path;
+        this.parameterBounds = parameterBounds;
+    }
+
+    public String getParameter(String name) {
+        int index = route.parameterIndex(name) * 2;
+        return path.substring(parameterBounds[index], parameterBounds[index + 1]);
+    }
+
+    public UUID getUuidParameter(String name) {
+        return UUID.fromString(getParameter(name));
+    }
+
+    public int getIntParameter(String name) {
+        int index = route.parameterIndex(name) * 2;
+        return Integer.parseInt(path, parameterBounds[index], parameterBounds[index + 1], 10);
+    }
+}
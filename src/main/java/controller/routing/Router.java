@@ -0,0 +1,141 @@
+package controller.routing;
+
+import java.util.Arrays;
+
+/**
+ * Method and path-segment trie built once at startup. Matching walks the path a segment at a time,
+ * preferring literal segments over parameters, and allocates only when the matched route captures
+ * parameters. Routes without parameters return a shared, precomputed match.
+ */
+public class Router<T> {
+    private final Node<T> root = new Node<>();
+
+    public Router<T> add(Route route, T target) {
+        Node<T> node = root;
+        for (int i = 0; i < route.segments().length; i++) {
+            node = route.isParameter(i) ? node.parameterChild() : node.literalChild(route.segments()[i]);
+        }
+        node.addEndpoint(route, target);
+        return this;
+    }
+
+    public RouteMatch<T> match(String method, String path) {
+        Node<T> node = root;
+        if (path != null) {
+            if (path.isEmpty() || path.charAt(0) != '/') {
+                return null;
+            }
+            int start = 1;
+            int length = path.length();
+            while (node != null && start <= length) {
+                int end = path.indexOf('/', start);
+                if (end < 0) {
+                    end = length;
+                }
+                node = node.next(path, start, end);
+                start = end + 1;
+            }
+            if (node == null) {
+                return null;
+            }
+        }
+
+        Endpoint<T> endpoint = node.endpoint(method);
+        if (endpoint == null) {
+            return null;
+        }
+        return endpoint.sharedMatch != null ? endpoint.sharedMatch : endpoint.bind(path);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static class Node<T> {
+        private String[] literals = new String[0];
+        private Node<T>[] literalChildren = new Node[0];
+        private Node<T> parameterChild;
+        private Endpoint<T>[] endpoints = new Endpoint[0];
+
+        private Node<T> next(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literals.length; i++) {
+                String literal = literals[i];
+                if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                    return literalChildren[i];
+                }
+            }
+            return length > 0 ? parameterChild : null;
+        }
+
+        private Node<T> literalChild(String literal) {
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(literal)) {
+                    return literalChildren[i];
+                }
+            }
+            Node<T> child = new Node<>();
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literalChildren = Arrays.copyOf(literalChildren, literalChildren.length + 1);
+            literals[literals.length - 1] = literal;
+            literalChildren[literalChildren.length - 1] = child;
+            return child;
+        }
+
+        private Node<T> parameterChild() {
+            if (parameterChild == null) {
+                parameterChild = new Node<>();
+            }
+            return parameterChild;
+        }
+
+        private Endpoint<T> endpoint(String method) {
+            for (Endpoint<T> endpoint : endpoints) {
+                if (endpoint.route.getMethod().equals(method)) {
+                    return endpoint;
+                }
+            }
+            return null;
+        }
+
+        private void addEndpoint(Route route, T target) {
+            if (endpoint(route.getMethod()) != null) {
+                throw new IllegalStateException("Conflicting route: " + route);
+            }
+            endpoints = Arrays.copyOf(endpoints, endpoints.length + 1);
+            endpoints[endpoints.length - 1] = new Endpoint<>(route, target);
+        }
+    }
+
+    private static class Endpoint<T> {
+        private final Route route;
+        private final T target;
+        private final RouteMatch<T> sharedMatch;
+
+        private Endpoint(Route route, T target) {
+            this.route = route;
+            this.target = target;
+            this.sharedMatch = route.getParameterCount() == 0
+                    ? new RouteMatch<>(route, target, null, null)
+                    : null;
+        }
+
+        private RouteMatch<T> bind(String path) {
+            int[] bounds = new int[route.parameterSegments().length * 2];
+            int segment = 0;
+            int parameter = 0;
+            int start = 1;
+            while (parameter < route.parameterSegments().length) {
+                int end = path.indexOf('/', start);
+                if (end < 0) {
+                    end = path.length();
+                }
+                if (segment == route.parameterSegments()[parameter]) {
+                    bounds[parameter * 2] = start;
+                    bounds[parameter * 2 + 1] = end;
+                    parameter++;
+                }
+                segment++;
+                start = end + 1;
+            }
+            return new RouteMatch<>(route, target, path, bounds);
+        }
+    }
+}
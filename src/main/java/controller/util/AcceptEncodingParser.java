@@ -0,0 +1,75 @@
+package controller.util;
+
+import service.ContentCoding;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class AcceptEncodingParser {
+    private static final String WILDCARD = "*";
+
+    private AcceptEncodingParser() {
+    }
+
+    /**
+     * Picks the HTTP content coding to apply for an {@code Accept-Encoding} header. Ties on the quality
+     * value are broken by the order of {@link ContentCoding#values()}.
+     *
+     * @return the negotiated coding, or {@code null} when the identity representation should be sent
+     */
+    public static ContentCoding negotiate(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+
+        Map<String, Double> qualities = parseQualities(header);
+        ContentCoding selected = null;
+        double selectedQuality = 0;
+        for (ContentCoding coding : ContentCoding.values()) {
+            if (!coding.isHttpCoding()) {
+                continue;
+            }
+            Double quality = qualities.getOrDefault(coding.getToken(), qualities.get(WILDCARD));
+            if (quality != null && quality > selectedQuality) {
+                selected = coding;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    public static boolean accepts(String header, ContentCoding coding) {
+        if (header == null || !coding.isHttpCoding()) {
+            return false;
+        }
+        Map<String, Double> qualities = parseQualities(header);
+        Double quality = qualities.getOrDefault(coding.getToken(), qualities.get(WILDCARD));
+        return quality != null && quality > 0;
+    }
+
+    private static Map<String, Double> parseQualities(String header) {
+        Map<String, Double> qualities = new HashMap<>();
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String token = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (token.isEmpty()) {
+                continue;
+            }
+
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            qualities.merge(token, quality, Math::max);
+        }
+        return qualities;
+    }
+}
@@ -0,0 +1,18 @@
+package controller.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import service.abstracts.ContentSource;
+
+import java.time.Instant;
+
+@Getter
+@RequiredArgsConstructor
+public class ArchiveEntry {
+    private final String name;
+    private final long size;
+    private final Instant lastModified;
+    private final boolean compress;
+    private final ContentSource content;
+    private final Long crc32;
+}
@@ -0,0 +1,68 @@
+package controller.util;
+
+import controller.util.abstracts.ArchiveWriter;
+import lombok.Getter;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+@Getter
+public enum ArchiveFormat {
+    ZIP("application/zip", ".zip") {
+        @Override
+        public ArchiveWriter open(OutputStream out) {
+            return new ZipArchiveWriter(out);
+        }
+
+        @Override
+        public void validate(List<ArchiveEntry> entries) {
+            ZipArchiveWriter.validate(entries);
+        }
+
+        @Override
+        public long predictLength(List<ArchiveEntry> entries) {
+            return ZipArchiveWriter.predictLength(entries);
+        }
+    },
+    TAR("application/x-tar", ".tar") {
+        @Override
+        public ArchiveWriter open(OutputStream out) {
+            return new TarArchiveWriter(out);
+        }
+
+        @Override
+        public long predictLength(List<ArchiveEntry> entries) {
+            return TarArchiveWriter.predictLength(entries);
+        }
+    };
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ArchiveFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public abstract ArchiveWriter open(OutputStream out);
+
+    public void validate(List<ArchiveEntry> entries) {
+    }
+
+    /**
+     * Exact size of the archive in bytes, or -1 when it depends on how well entries compress.
+     */
+    public abstract long predictLength(List<ArchiveEntry> entries);
+
+    public static ArchiveFormat fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return ZIP;
+        }
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported archive format: " + name);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package controller.util;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+@Slf4j
+abstract class AsyncFileWriteListener implements WriteListener {
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    private final FileChannel channel;
+    private final long end;
+    private final long chunkSize;
+    private long offset;
+
+    AsyncFileWriteListener(AsyncContext asyncContext, ServletOutputStream out, FileChannel channel,
+                           long position, long count, long chunkSize) {
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.channel = channel;
+        this.offset = position;
+        this.end = position + count;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (out.isReady()) {
+            if (offset >= end) {
+                finish();
+                return;
+            }
+            offset += writeChunk(out, channel, offset, Math.min(chunkSize, end - offset));
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("Asynchronous file write failed at {} of {} bytes: {}", offset, end, t.toString());
+        finish();
+    }
+
+    protected abstract long writeChunk(ServletOutputStream out, FileChannel channel,
+                                       long position, long length) throws IOException;
+
+    private void finish() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Could not close file channel", e);
+        }
+        asyncContext.complete();
+    }
+}
@@ -0,0 +1,19 @@
+package controller.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ByteRange {
+    private final long start;
+    private final long end;
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    public String toContentRange(long totalSize) {
+        return "bytes " + start + "-" + end + "/" + totalSize;
+    }
+}
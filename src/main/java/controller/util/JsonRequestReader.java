@@ -0,0 +1,48 @@
+package controller.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import config.JsonMapper;
+import controller.util.abstracts.RequestReader;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonRequestReader implements RequestReader {
+    private final JsonFactory jsonFactory;
+
+    public JsonRequestReader() {
+        this.jsonFactory = JsonMapper.getObjectMapper().getFactory();
+    }
+
+    /**
+     * Streams the array instead of binding it, so an oversized request is rejected as soon as
+     * element {@code maxSize + 1} is seen rather than after the whole body has been read.
+     */
+    @Override
+    public List<String> readIdList(HttpServletRequest req, int maxSize) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(req.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Request body must be a JSON array of file ids");
+            }
+            List<String> ids = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || !token.isScalarValue()) {
+                    throw new IllegalArgumentException("Request body must be a JSON array of file ids");
+                }
+                if (ids.size() == maxSize) {
+                    throw new IllegalArgumentException("A request may contain at most " + maxSize + " ids");
+                }
+                ids.add(token == JsonToken.VALUE_NULL ? null : parser.getText());
+            }
+            return ids;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body must be a JSON array of file ids");
+        }
+    }
+}
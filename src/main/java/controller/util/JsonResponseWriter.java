@@ -1,31 +1,63 @@
 package controller.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import config.JsonMapper;
 import controller.util.abstracts.ResponseWriter;
 import jakarta.servlet.http.HttpServletResponse;
+import model.dto.FileResponse;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public class JsonResponseWriter implements ResponseWriter {
-    private final ObjectMapper objectMapper;
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain;charset=UTF-8";
+
+    private final ObjectWriter streamWriter;
+    private final ClassValue<ObjectWriter> typedWriters;
 
     public JsonResponseWriter() {
-        this.objectMapper = JsonMapper.getObjectMapper();
+        this.streamWriter = JsonMapper.getObjectMapper().writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.typedWriters = new ClassValue<>() {
+            @Override
+            protected ObjectWriter computeValue(Class<?> type) {
+                return streamWriter.forType(type);
+            }
+        };
+        typedWriters.get(FileResponse.class);
     }
 
     @Override
     public void writeJsonResponse(HttpServletResponse resp, Object data) throws IOException {
-        resp.setContentType("application/json;charset=UTF-8");
+        resp.setContentType(JSON_CONTENT_TYPE);
         resp.setStatus(HttpServletResponse.SC_OK);
-        String json = objectMapper.writeValueAsString(data);
-        resp.getWriter().write(json);
+        writerFor(data).writeValue(resp.getOutputStream(), data);
     }
 
     @Override
     public void writeTextResponse(HttpServletResponse resp, String text) throws IOException {
-        resp.setContentType("text/plain;charset=UTF-8");
+        resp.setContentType(TEXT_CONTENT_TYPE);
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.getOutputStream().write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public JsonGenerator startJsonStream(HttpServletResponse resp) throws IOException {
+        resp.setContentType(JSON_CONTENT_TYPE);
         resp.setStatus(HttpServletResponse.SC_OK);
-        resp.getWriter().write(text);
+        return streamWriter.createGenerator(resp.getOutputStream());
+    }
+
+    @Override
+    public void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        writerFor(value).writeValue(generator, value);
+    }
+
+    private ObjectWriter writerFor(Object value) {
+        return value == null ? streamWriter : typedWriters.get(value.getClass());
     }
 }
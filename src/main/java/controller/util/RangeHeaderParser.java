@@ -0,0 +1,97 @@
+package controller.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public final class RangeHeaderParser {
+    private static final String BYTES_UNIT = "bytes=";
+    private static final int MAX_RANGES = 32;
+
+    private RangeHeaderParser() {
+    }
+
+    /**
+     * Parses a {@code Range} header against a representation of {@code size} bytes.
+     *
+     * @return {@code null} when the header is absent or malformed and must be ignored, an empty list
+     * when none of the ranges is satisfiable, otherwise the sorted and coalesced ranges
+     */
+    public static List<ByteRange> parse(String header, long size) {
+        if (header == null || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+
+        String[] specs = header.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String rawSpec : specs) {
+            String spec = rawSpec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+
+            try {
+                ByteRange range = dash == 0
+                        ? suffixRange(Long.parseLong(spec.substring(1)), size)
+                        : boundedRange(spec, dash, size);
+                if (range != null) {
+                    ranges.add(range);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return coalesce(ranges);
+    }
+
+    private static ByteRange suffixRange(long suffixLength, long size) {
+        if (suffixLength < 0) {
+            throw new NumberFormatException("Negative suffix length");
+        }
+        if (suffixLength == 0 || size == 0) {
+            return null;
+        }
+        return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+    }
+
+    private static ByteRange boundedRange(String spec, int dash, long size) {
+        long start = Long.parseLong(spec.substring(0, dash));
+        String endPart = spec.substring(dash + 1);
+        long end = endPart.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endPart);
+
+        if (start < 0 || end < start) {
+            throw new NumberFormatException("Invalid range: " + spec);
+        }
+        if (start >= size) {
+            return null;
+        }
+        return new ByteRange(start, Math.min(end, size - 1));
+    }
+
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+
+        ranges.sort(Comparator.comparingLong(ByteRange::getStart));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            ByteRange next = ranges.get(i);
+            if (next.getStart() <= current.getEnd() + 1) {
+                current = new ByteRange(current.getStart(), Math.max(current.getEnd(), next.getEnd()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+}
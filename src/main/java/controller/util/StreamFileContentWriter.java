@@ -0,0 +1,68 @@
+package controller.util;
+
+import controller.util.abstracts.FileContentWriter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class StreamFileContentWriter implements FileContentWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public void write(ServletOutputStream out, Path filePath, long position, long count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(count, 1)));
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long offset = position;
+            long remaining = count;
+            while (remaining > 0) {
+                int read = readChunk(channel, buffer, offset, remaining);
+                out.write(buffer.array(), 0, read);
+                offset += read;
+                remaining -= read;
+            }
+        }
+    }
+
+    @Override
+    public void write(ServletOutputStream out, ByteBuffer content) throws IOException {
+        byte[] buffer = new byte[Math.min(BUFFER_SIZE, Math.max(content.remaining(), 1))];
+        while (content.hasRemaining()) {
+            int length = Math.min(buffer.length, content.remaining());
+            content.get(buffer, 0, length);
+            out.write(buffer, 0, length);
+        }
+    }
+
+    @Override
+    public void writeAsync(AsyncContext asyncContext, Path filePath, long position, long count) throws IOException {
+        ServletOutputStream out = asyncContext.getResponse().getOutputStream();
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(count, 1)));
+
+        out.setWriteListener(new AsyncFileWriteListener(asyncContext, out, channel, position, count, BUFFER_SIZE) {
+            @Override
+            protected long writeChunk(ServletOutputStream out, FileChannel channel,
+                                      long position, long length) throws IOException {
+                int read = readChunk(channel, buffer, position, length);
+                out.write(buffer.array(), 0, read);
+                return read;
+            }
+        });
+    }
+
+    private int readChunk(FileChannel channel, ByteBuffer buffer, long position, long length) throws IOException {
+        buffer.clear().limit((int) Math.min(buffer.capacity(), length));
+        int read = channel.read(buffer, position);
+        if (read < 0) {
+            throw new EOFException("Unexpected end of file at " + position);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,152 @@
+package controller.util;
+
+import controller.util.abstracts.ArchiveWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams a POSIX (ustar) tar archive. Names that do not fit the 100-byte header field and sizes
+ * beyond the 8 GiB octal limit are carried in a PAX extended header ahead of the entry.
+ */
+class TarArchiveWriter implements ArchiveWriter {
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+    private static final byte TYPE_FILE = '0';
+    private static final byte TYPE_PAX_HEADER = 'x';
+    private static final byte[] USTAR_MAGIC = {'u', 's', 't', 'a', 'r', 0, '0', '0'};
+    private static final byte[] PAX_HEADER_NAME = "././@PaxHeader".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final byte[] header = new byte[BLOCK_SIZE];
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    TarArchiveWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    static long predictLength(List<ArchiveEntry> entries) {
+        long length = 2L * BLOCK_SIZE;
+        for (ArchiveEntry entry : entries) {
+            byte[] paxHeader = paxHeader(entry, encodeName(entry));
+            if (paxHeader != null) {
+                length += BLOCK_SIZE + padded(paxHeader.length);
+            }
+            length += BLOCK_SIZE + padded(entry.getSize());
+        }
+        return length;
+    }
+
+    @Override
+    public void write(ArchiveEntry entry) throws IOException {
+        byte[] name = encodeName(entry);
+        long modified = entry.getLastModified().getEpochSecond();
+
+        byte[] paxHeader = paxHeader(entry, name);
+        if (paxHeader != null) {
+            writeHeader(PAX_HEADER_NAME, paxHeader.length, modified, TYPE_PAX_HEADER);
+            out.write(paxHeader);
+            writePadding(paxHeader.length);
+        }
+
+        writeHeader(name, entry.getSize() > MAX_OCTAL_SIZE ? 0 : entry.getSize(), modified, TYPE_FILE);
+        long copied = 0;
+        try (InputStream in = entry.getContent().open()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                copied += read;
+            }
+        }
+        if (copied != entry.getSize()) {
+            throw new IOException("Content of " + entry.getName() + " is " + copied +
+                    " bytes, expected " + entry.getSize());
+        }
+        writePadding(copied);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        Arrays.fill(header, (byte) 0);
+        out.write(header);
+        out.write(header);
+        out.flush();
+    }
+
+    private void writeHeader(byte[] name, long size, long modified, byte type) throws IOException {
+        Arrays.fill(header, (byte) 0);
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        writeOctal(100, 8, 0644);
+        writeOctal(108, 8, 0);
+        writeOctal(116, 8, 0);
+        writeOctal(124, 12, size);
+        writeOctal(136, 12, modified);
+        header[156] = type;
+        System.arraycopy(USTAR_MAGIC, 0, header, 257, USTAR_MAGIC.length);
+
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        writeOctal(148, 7, checksum);
+        header[155] = ' ';
+
+        out.write(header);
+    }
+
+    private void writeOctal(int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        int padding = length - 1 - digits.length();
+        for (int i = 0; i < padding; i++) {
+            header[offset + i] = '0';
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            header[offset + padding + i] = (byte) digits.charAt(i);
+        }
+        header[offset + length - 1] = 0;
+    }
+
+    private void writePadding(long written) throws IOException {
+        int remainder = (int) (written % BLOCK_SIZE);
+        if (remainder != 0) {
+            Arrays.fill(header, (byte) 0);
+            out.write(header, 0, BLOCK_SIZE - remainder);
+        }
+    }
+
+    private static byte[] paxHeader(ArchiveEntry entry, byte[] name) {
+        StringBuilder records = new StringBuilder();
+        if (name.length > NAME_LENGTH) {
+            appendRecord(records, "path", entry.getName());
+        }
+        if (entry.getSize() > MAX_OCTAL_SIZE) {
+            appendRecord(records, "size", Long.toString(entry.getSize()));
+        }
+        return records.length() == 0 ? null : records.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendRecord(StringBuilder records, String key, String value) {
+        // each record is "<length> <key>=<value>\n", where the length counts its own digits
+        int payload = 1 + key.length() + 1 + value.getBytes(StandardCharsets.UTF_8).length + 1;
+        int length = payload + Integer.toString(payload).length();
+        if (Integer.toString(length).length() != Integer.toString(payload).length()) {
+            length++;
+        }
+        records.append(length).append(' ').append(key).append('=').append(value).append('\n');
+    }
+
+    private static long padded(long size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+    }
+
+    private static byte[] encodeName(ArchiveEntry entry) {
+        return entry.getName().getBytes(StandardCharsets.UTF_8);
+    }
+}
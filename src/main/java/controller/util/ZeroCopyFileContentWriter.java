@@ -0,0 +1,86 @@
+package controller.util;
+
+import controller.util.abstracts.FileContentWriter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import org.eclipse.jetty.server.HttpOutput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ZeroCopyFileContentWriter implements FileContentWriter {
+    private static final long MAX_MAPPED_SEGMENT = 64L * 1024 * 1024;
+    private static final long ASYNC_MAPPED_SEGMENT = 4L * 1024 * 1024;
+
+    private final StreamFileContentWriter fallbackWriter = new StreamFileContentWriter();
+
+    @Override
+    public void write(ServletOutputStream out, Path filePath, long position, long count) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            if (out instanceof HttpOutput) {
+                writeMapped(channel, (HttpOutput) out, position, count);
+            } else {
+                transfer(channel, Channels.newChannel(out), position, count);
+            }
+        }
+    }
+
+    @Override
+    public void write(ServletOutputStream out, ByteBuffer content) throws IOException {
+        if (out instanceof HttpOutput) {
+            ((HttpOutput) out).write(content);
+        } else {
+            fallbackWriter.write(out, content);
+        }
+    }
+
+    @Override
+    public void writeAsync(AsyncContext asyncContext, Path filePath, long position, long count) throws IOException {
+        ServletOutputStream out = asyncContext.getResponse().getOutputStream();
+        if (!(out instanceof HttpOutput)) {
+            fallbackWriter.writeAsync(asyncContext, filePath, position, count);
+            return;
+        }
+
+        HttpOutput httpOutput = (HttpOutput) out;
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        out.setWriteListener(new AsyncFileWriteListener(asyncContext, out, channel, position, count,
+                ASYNC_MAPPED_SEGMENT) {
+            @Override
+            protected long writeChunk(ServletOutputStream out, FileChannel channel,
+                                      long position, long length) throws IOException {
+                httpOutput.write(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                return length;
+            }
+        });
+    }
+
+    private void writeMapped(FileChannel channel, HttpOutput out, long position, long count) throws IOException {
+        long offset = position;
+        long end = position + count;
+        while (offset < end) {
+            long segment = Math.min(MAX_MAPPED_SEGMENT, end - offset);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, segment);
+            out.write(buffer);
+            offset += segment;
+        }
+    }
+
+    private void transfer(FileChannel channel, WritableByteChannel target, long position, long count) throws IOException {
+        long offset = position;
+        long end = position + count;
+        while (offset < end) {
+            long transferred = channel.transferTo(offset, end - offset, target);
+            if (transferred <= 0) {
+                throw new IOException("File transfer stalled at " + offset + " of " + end + " bytes");
+            }
+            offset += transferred;
+        }
+    }
+}
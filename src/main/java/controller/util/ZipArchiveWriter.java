@@ -0,0 +1,270 @@
+package controller.util;
+
+import controller.util.abstracts.ArchiveWriter;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams a ZIP archive without seeking. Stored entries put the CRC recorded at upload into the local
+ * header, so an all-stored archive has a size known before the first byte is sent; entries without a
+ * recorded CRC are read twice, once to compute it.
+ * Deflated entries carry their CRC and sizes in a trailing data descriptor instead.
+ * Zip64 is not written; archives that might need it are rejected up front.
+ */
+class ZipArchiveWriter implements ArchiveWriter {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int DATA_DESCRIPTOR_LENGTH = 16;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long MAX_ZIP32_VALUE = 0xFFFFFFFFL;
+    private static final int MAX_ZIP32_ENTRIES = 0xFFFF;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CountingOutputStream out;
+    private final ByteBuffer header = ByteBuffer.allocate(CENTRAL_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final List<CentralEntry> centralDirectory = new ArrayList<>();
+
+    ZipArchiveWriter(OutputStream out) {
+        this.out = new CountingOutputStream(out);
+    }
+
+    static void validate(List<ArchiveEntry> entries) {
+        if (entries.size() > MAX_ZIP32_ENTRIES) {
+            throw new IllegalArgumentException("Too many files for a ZIP archive, use the tar format");
+        }
+        long worstCase = END_OF_CENTRAL_DIRECTORY_LENGTH;
+        for (ArchiveEntry entry : entries) {
+            // deflate can expand incompressible input by a few bytes per block
+            long bound = entry.isCompress() ? entry.getSize() + (entry.getSize() >> 10) + 64 : entry.getSize();
+            if (bound > MAX_ZIP32_VALUE) {
+                throw new IllegalArgumentException("File too large for a ZIP archive, use the tar format: " +
+                        entry.getName());
+            }
+            worstCase += entryOverhead(entry) + bound;
+        }
+        if (worstCase > MAX_ZIP32_VALUE) {
+            throw new IllegalArgumentException("Files too large for a ZIP archive, use the tar format");
+        }
+    }
+
+    static long predictLength(List<ArchiveEntry> entries) {
+        long length = END_OF_CENTRAL_DIRECTORY_LENGTH;
+        for (ArchiveEntry entry : entries) {
+            if (entry.isCompress()) {
+                return -1;
+            }
+            length += entryOverhead(entry) + entry.getSize();
+        }
+        return length;
+    }
+
+    private static long entryOverhead(ArchiveEntry entry) {
+        int nameLength = encodeName(entry).length;
+        int descriptor = entry.isCompress() ? DATA_DESCRIPTOR_LENGTH : 0;
+        return LOCAL_HEADER_LENGTH + nameLength + descriptor + CENTRAL_HEADER_LENGTH + nameLength;
+    }
+
+    @Override
+    public void write(ArchiveEntry entry) throws IOException {
+        byte[] name = encodeName(entry);
+        long offset = out.getByteCount();
+        int dosTime = toDosTime(entry.getLastModified());
+
+        CentralEntry central;
+        if (entry.isCompress()) {
+            int flags = FLAG_UTF8_NAMES | FLAG_DATA_DESCRIPTOR;
+            writeLocalHeader(name, VERSION_DEFLATED, flags, METHOD_DEFLATED, dosTime, 0, 0, 0);
+
+            CRC32 crc = new CRC32();
+            long dataStart = out.getByteCount();
+            long size;
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try (InputStream in = entry.getContent().open();
+                 DeflaterOutputStream deflated = new DeflaterOutputStream(
+                         CloseShieldOutputStream.wrap(out), deflater, BUFFER_SIZE)) {
+                size = copy(in, deflated, crc);
+            } finally {
+                deflater.end();
+            }
+            long compressedSize = out.getByteCount() - dataStart;
+            checkSize(entry, size);
+
+            writeDataDescriptor(crc.getValue(), compressedSize, size);
+            central = new CentralEntry(name, VERSION_DEFLATED, flags, METHOD_DEFLATED, dosTime,
+                    crc.getValue(), compressedSize, size, offset);
+        } else {
+            long crc = entry.getCrc32() != null ? entry.getCrc32() : computeCrc(entry);
+
+            writeLocalHeader(name, VERSION_STORED, FLAG_UTF8_NAMES, METHOD_STORED, dosTime,
+                    crc, entry.getSize(), entry.getSize());
+            try (InputStream in = entry.getContent().open()) {
+                checkSize(entry, copy(in, out, null));
+            }
+            central = new CentralEntry(name, VERSION_STORED, FLAG_UTF8_NAMES, METHOD_STORED, dosTime,
+                    crc, entry.getSize(), entry.getSize(), offset);
+        }
+
+        if (out.getByteCount() > MAX_ZIP32_VALUE) {
+            throw new IOException("ZIP archive exceeded 4 GiB while writing " + entry.getName());
+        }
+        centralDirectory.add(central);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        long directoryOffset = out.getByteCount();
+        for (CentralEntry entry : centralDirectory) {
+            header.clear();
+            header.putInt(CENTRAL_HEADER_SIGNATURE)
+                    .putShort((short) entry.version)
+                    .putShort((short) entry.version)
+                    .putShort((short) entry.flags)
+                    .putShort((short) entry.method)
+                    .putInt(entry.dosTime)
+                    .putInt((int) entry.crc)
+                    .putInt((int) entry.compressedSize)
+                    .putInt((int) entry.size)
+                    .putShort((short) entry.name.length)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(0)
+                    .putInt((int) entry.offset);
+            out.write(header.array(), 0, CENTRAL_HEADER_LENGTH);
+            out.write(entry.name);
+        }
+        long directorySize = out.getByteCount() - directoryOffset;
+
+        header.clear();
+        header.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) centralDirectory.size())
+                .putShort((short) centralDirectory.size())
+                .putInt((int) directorySize)
+                .putInt((int) directoryOffset)
+                .putShort((short) 0);
+        out.write(header.array(), 0, END_OF_CENTRAL_DIRECTORY_LENGTH);
+        out.flush();
+    }
+
+    private void writeLocalHeader(byte[] name, int version, int flags, int method, int dosTime,
+                                  long crc, long compressedSize, long size) throws IOException {
+        header.clear();
+        header.putInt(LOCAL_HEADER_SIGNATURE)
+                .putShort((short) version)
+                .putShort((short) flags)
+                .putShort((short) method)
+                .putInt(dosTime)
+                .putInt((int) crc)
+                .putInt((int) compressedSize)
+                .putInt((int) size)
+                .putShort((short) name.length)
+                .putShort((short) 0);
+        out.write(header.array(), 0, LOCAL_HEADER_LENGTH);
+        out.write(name);
+    }
+
+    private void writeDataDescriptor(long crc, long compressedSize, long size) throws IOException {
+        header.clear();
+        header.putInt(DATA_DESCRIPTOR_SIGNATURE)
+                .putInt((int) crc)
+                .putInt((int) compressedSize)
+                .putInt((int) size);
+        out.write(header.array(), 0, DATA_DESCRIPTOR_LENGTH);
+    }
+
+    private long computeCrc(ArchiveEntry entry) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = entry.getContent().open()) {
+            checkSize(entry, copy(in, OutputStream.nullOutputStream(), crc));
+        }
+        return crc.getValue();
+    }
+
+    private long copy(InputStream in, OutputStream target, CRC32 crc) throws IOException {
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (crc != null) {
+                crc.update(buffer, 0, read);
+            }
+            target.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    private static void checkSize(ArchiveEntry entry, long actual) throws IOException {
+        if (actual != entry.getSize()) {
+            throw new IOException("Content of " + entry.getName() + " is " + actual +
+                    " bytes, expected " + entry.getSize());
+        }
+    }
+
+    private static byte[] encodeName(ArchiveEntry entry) {
+        return entry.getName().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int toDosTime(Instant instant) {
+        LocalDateTime time = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        int date = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+        int clock = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+        return (date << 16) | clock;
+    }
+
+    private static class CentralEntry {
+        private final byte[] name;
+        private final int version;
+        private final int flags;
+        private final int method;
+        private final int dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long offset;
+
+        private CentralEntry(byte[] name, int version, int flags, int method, int dosTime,
+                             long crc, long compressedSize, long size, long offset) {
+            this.name = name;
+            this.version = version;
+            this.flags = flags;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package controller.util.abstracts;
+
+import controller.util.ArchiveEntry;
+
+import java.io.IOException;
+
+public interface ArchiveWriter {
+    void write(ArchiveEntry entry) throws IOException;
+    void finish() throws IOException;
+}
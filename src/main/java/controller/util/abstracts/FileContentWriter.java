@@ -0,0 +1,14 @@
+package controller.util.abstracts;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+public interface FileContentWriter {
+    void write(ServletOutputStream out, Path filePath, long position, long count) throws IOException;
+    void write(ServletOutputStream out, ByteBuffer content) throws IOException;
+    void writeAsync(AsyncContext asyncContext, Path filePath, long position, long count) throws IOException;
+}
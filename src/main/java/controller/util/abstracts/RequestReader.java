@@ -0,0 +1,10 @@
+package controller.util.abstracts;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface RequestReader {
+    List<String> readIdList(HttpServletRequest req, int maxSize) throws IOException;
+}
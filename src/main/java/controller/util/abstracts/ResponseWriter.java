@@ -1,5 +1,6 @@
 package controller.util.abstracts;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
@@ -7,4 +8,6 @@ import java.io.IOException;
 public interface ResponseWriter {
     void writeJsonResponse(HttpServletResponse resp, Object data) throws IOException;
     void writeTextResponse(HttpServletResponse resp, String text) throws IOException;
-}
\ No newline at end of file
+    JsonGenerator startJsonStream(HttpServletResponse resp) throws IOException;
+    void writeJsonValue(JsonGenerator generator, Object value) throws IOException;
+}
@@ -0,0 +1,77 @@
+package metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latencies for a Prometheus summary. Quantiles cover a sliding window of about
+ * {@link #WINDOW_NANOS}, kept as a ring of sub-histograms; count and sum cover all time.
+ */
+public class LatencyHistogram {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int WINDOW_SLOTS = 6;
+    private static final long SLOT_NANOS = WINDOW_NANOS / WINDOW_SLOTS;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram[] slots = new Histogram[WINDOW_SLOTS];
+    private final Histogram window = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private Histogram interval;
+    private int currentSlot;
+    private long slotStartedNanos = System.nanoTime();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            slots[i] = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        }
+    }
+
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1000, 0), HIGHEST_TRACKABLE_MICROS);
+        recorder.recordValue(micros);
+        count.increment();
+        sumMicros.add(micros);
+    }
+
+    synchronized Histogram snapshot() {
+        rotate(System.nanoTime());
+        interval = recorder.getIntervalHistogram(interval);
+        slots[currentSlot].add(interval);
+
+        window.reset();
+        for (Histogram slot : slots) {
+            window.add(slot);
+        }
+        return window;
+    }
+
+    private void rotate(long now) {
+        long elapsedSlots = (now - slotStartedNanos) / SLOT_NANOS;
+        if (elapsedSlots <= 0) {
+            return;
+        }
+        for (long i = 0; i < Math.min(elapsedSlots, WINDOW_SLOTS); i++) {
+            currentSlot = (currentSlot + 1) % WINDOW_SLOTS;
+            slots[currentSlot].reset();
+        }
+        slotStartedNanos += elapsedSlots * SLOT_NANOS;
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getSumMicros() {
+        return sumMicros.sum();
+    }
+}
@@ -0,0 +1,139 @@
+package metrics;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double MICROS_PER_SECOND = 1_000_000.0;
+
+    @Getter
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private final Map<String, Object> series = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return register(name, help, "summary", labels, LatencyHistogram::new);
+    }
+
+    public LongAdder counter(String name, String help, String... labels) {
+        return register(name, help, "counter", labels, LongAdder::new);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, "gauge", labels, () -> value);
+    }
+
+    public void counterFunction(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, "counter", labels, () -> value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T register(String name, String help, String type, String[] labels,
+                           Supplier<T> factory) {
+        String formattedLabels = formatLabels(labels);
+        return (T) series.computeIfAbsent(name + formattedLabels, key -> {
+            T metric = factory.get();
+            families.computeIfAbsent(name, familyName -> new Family(help, type))
+                    .series.add(new Series(formattedLabels, metric));
+            return metric;
+        });
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Series metric : family.series) {
+                metric.write(out, name);
+            }
+        }
+    }
+
+    private static String formatLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder formatted = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                formatted.append(',');
+            }
+            formatted.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append('"');
+        }
+        return formatted.append('}').toString();
+    }
+
+    private static class Family {
+        private final String help;
+        private final String type;
+        private final List<Series> series = new CopyOnWriteArrayList<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static class Series {
+        private final String labels;
+        private final Object metric;
+
+        private Series(String labels, Object metric) {
+            this.labels = labels;
+            this.metric = metric;
+        }
+
+        private void write(StringBuilder out, String name) {
+            if (metric instanceof LatencyHistogram histogram) {
+                writeSummary(out, name, histogram);
+            } else if (metric instanceof LongAdder counter) {
+                writeSample(out, name, labels, counter.sum());
+            } else if (metric instanceof DoubleSupplier value) {
+                writeSample(out, name, labels, value.getAsDouble());
+            }
+        }
+
+        private void writeSummary(StringBuilder out, String name, LatencyHistogram histogram) {
+            Histogram snapshot = histogram.snapshot();
+            for (double quantile : QUANTILES) {
+                String quantileLabel = "quantile=\"" + quantile + "\"";
+                String quantileLabels = labels.isEmpty()
+                        ? "{" + quantileLabel + "}"
+                        : labels.substring(0, labels.length() - 1) + "," + quantileLabel + "}";
+                writeSample(out, name, quantileLabels, snapshot.getTotalCount() == 0
+                        ? Double.NaN
+                        : snapshot.getValueAtPercentile(quantile * 100) / MICROS_PER_SECOND);
+            }
+            writeSample(out, name + "_sum", labels, histogram.getSumMicros() / MICROS_PER_SECOND);
+            writeSample(out, name + "_count", labels, histogram.getCount());
+        }
+
+        private static void writeSample(StringBuilder out, String name, String labels, double value) {
+            out.append(name).append(labels).append(' ');
+            if (value == Math.rint(value) && !Double.isInfinite(value)) {
+                out.append((long) value);
+            } else {
+                out.append(value);
+            }
+            out.append('\n');
+        }
+    }
+}
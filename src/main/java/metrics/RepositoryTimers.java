@@ -0,0 +1,12 @@
+package metrics;
+
+public final class RepositoryTimers {
+    private RepositoryTimers() {
+    }
+
+    public static LatencyHistogram of(Class<?> repository, String method) {
+        return MetricsRegistry.getInstance().histogram("db_call_duration_seconds",
+                "Time spent in repository calls including transaction handling",
+                "repository", repository.getSimpleName(), "method", method);
+    }
+}
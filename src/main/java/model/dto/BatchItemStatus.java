@@ -0,0 +1,7 @@
+package model.dto;
+
+public enum BatchItemStatus {
+    OK,
+    NOT_FOUND,
+    INVALID_ID
+}
@@ -6,8 +6,12 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import service.ContentCoding;
+import service.DownloadToken;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.time.Instant;
 
 @Data
 @Builder
@@ -16,7 +20,16 @@ import java.nio.file.Path;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class FileDownloadResponse {
     Path filePath;
+    ByteBuffer content;
+    String storageKey;
     String contentType;
     String originalFileName;
     Long fileSize;
+    Long contentCrc32;
+    String entityTag;
+    Instant lastModified;
+    boolean compressible;
+    ContentCoding storageCoding;
+    Long storedSize;
+    DownloadToken downloadToken;
 }
@@ -0,0 +1,27 @@
+package model.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FileListQuery {
+    int limit;
+    LocalDateTime cursorUploadDate;
+    UUID cursorId;
+    String contentType;
+    Long minSize;
+    Long maxSize;
+    LocalDateTime uploadedFrom;
+    LocalDateTime uploadedTo;
+}
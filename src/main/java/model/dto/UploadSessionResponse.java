@@ -0,0 +1,27 @@
+package model.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadSessionResponse {
+    UUID id;
+    String originalFileName;
+    Long totalSize;
+    Long chunkSize;
+    Integer chunkCount;
+    String status;
+    Integer receivedChunks;
+    List<Integer> missingChunks;
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
@@ -19,12 +20,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "file_metadata")
+@Table(name = "file_metadata", indexes = {
+        @Index(name = "idx_file_metadata_upload_date_id", columnList = "upload_date DESC, id DESC")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class FileMetadata {
     @Id
@@ -34,7 +37,7 @@ public class FileMetadata {
     @Column(name = "original_file_name", nullable = false)
     String originalFileName;
 
-    @Column(name = "stored_file_name", nullable = false, unique = true)
+    @Column(name = "stored_file_name", nullable = false)
     String storedFileName;
 
     @Column(name = "file_size", nullable = false)
@@ -43,6 +46,18 @@ public class FileMetadata {
     @Column(name = "content_type",  nullable = false)
     String contentType;
 
+    @Column(name = "checksum", length = 64)
+    String checksum;
+
+    @Column(name = "content_crc32")
+    Long contentCrc32;
+
+    @Column(name = "storage_coding", length = 16)
+    String storageCoding;
+
+    @Column(name = "stored_size")
+    Long storedSize;
+
     @Column(name = "upload_date", nullable = false)
     LocalDateTime uploadDate;
 
@@ -52,6 +67,10 @@ public class FileMetadata {
     @Column(name = "download_count", nullable = false)
     Integer downloadCount;
 
+    public LocalDateTime getLastActivityDate() {
+        return lastDownloadDate != null ? lastDownloadDate : uploadDate;
+    }
+
     @PrePersist
     public void prePersist() {
         uploadDate = uploadDate == null ? LocalDateTime.now() : uploadDate;
@@ -0,0 +1,38 @@
+package model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_blob")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StoredBlob {
+    @Id
+    @Column(name = "digest", length = 72)
+    String digest;
+
+    @Column(name = "blob_size", nullable = false)
+    Long blobSize;
+
+    @Column(name = "reference_count", nullable = false)
+    Long referenceCount;
+
+    @Column(name = "created_date", nullable = false)
+    LocalDateTime createdDate;
+}
@@ -0,0 +1,67 @@
+package model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "upload_session")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    UUID id;
+
+    @Column(name = "original_file_name", nullable = false)
+    String originalFileName;
+
+    @Column(name = "content_type")
+    String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    Long chunkSize;
+
+    @Column(name = "chunk_count", nullable = false)
+    Integer chunkCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    UploadSessionStatus status;
+
+    @Column(name = "created_date", nullable = false)
+    LocalDateTime createdDate;
+
+    @PrePersist
+    public void prePersist() {
+        createdDate = createdDate == null ? LocalDateTime.now() : createdDate;
+        status = status == null ? UploadSessionStatus.OPEN : status;
+    }
+
+    public long getChunkLength(int index) {
+        return index == chunkCount - 1 ? totalSize - (long) index * chunkSize : chunkSize;
+    }
+}
@@ -0,0 +1,6 @@
+package model.entity;
+
+public enum UploadSessionStatus {
+    OPEN,
+    COMPLETING
+}
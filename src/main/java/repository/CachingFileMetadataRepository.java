@@ -0,0 +1,124 @@
+package repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import model.entity.FileMetadata;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Slf4j
+public class CachingFileMetadataRepository extends FileMetadataRepository {
+    private final Cache<UUID, Optional<FileMetadata>> cache;
+
+    public CachingFileMetadataRepository(long maximumSize, Duration ttl, Duration negativeTtl) {
+        super();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SnapshotExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        log.info("File metadata cache enabled: max {} entries, ttl {}, negative ttl {}",
+                maximumSize, ttl, negativeTtl);
+    }
+
+    @Override
+    public Optional<FileMetadata> findById(UUID id) {
+        return cache.get(id, key -> super.findById(key).map(this::snapshot))
+                .map(this::snapshot);
+    }
+
+    @Override
+    public List<FileMetadata> findAllByIds(Collection<UUID> ids) {
+        Map<UUID, Optional<FileMetadata>> cached = cache.getAll(ids, missing -> {
+            Map<UUID, Optional<FileMetadata>> loaded = new HashMap<>();
+            for (FileMetadata fileMetadata : super.findAllByIds(Set.copyOf(missing))) {
+                loaded.put(fileMetadata.getId(), Optional.of(snapshot(fileMetadata)));
+            }
+            for (UUID id : missing) {
+                loaded.putIfAbsent(id, Optional.empty());
+            }
+            return loaded;
+        });
+
+        List<FileMetadata> files = new ArrayList<>(cached.size());
+        for (Optional<FileMetadata> fileMetadata : cached.values()) {
+            fileMetadata.ifPresent(found -> files.add(snapshot(found)));
+        }
+        return files;
+    }
+
+    @Override
+    public FileMetadata save(FileMetadata fileMetadata) {
+        FileMetadata saved = super.save(fileMetadata);
+        cache.invalidate(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public void delete(UUID id) {
+        try {
+            super.delete(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public DeletedFiles deleteAllAndRelease(Collection<UUID> ids) {
+        try {
+            return super.deleteAllAndRelease(ids);
+        } finally {
+            cache.invalidateAll(ids);
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public long getCacheSize() {
+        return cache.estimatedSize();
+    }
+
+    private FileMetadata snapshot(FileMetadata fileMetadata) {
+        return fileMetadata.toBuilder().build();
+    }
+
+    private static class SnapshotExpiry implements Expiry<UUID, Optional<FileMetadata>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private SnapshotExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(UUID key, Optional<FileMetadata> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, Optional<FileMetadata> value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, Optional<FileMetadata> value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
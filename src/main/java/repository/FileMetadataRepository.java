@@ -1,50 +1,159 @@
 package repository;
 
 import config.HibernateUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import metrics.LatencyHistogram;
+import metrics.RepositoryTimers;
+import model.dto.DownloadCountDelta;
+import model.dto.FileListQuery;
 import model.entity.FileMetadata;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 public class FileMetadataRepository {
+    private static final LatencyHistogram SCROLL_FILES_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "scrollFiles");
+    private static final LatencyHistogram SAVE_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "save");
+    private static final LatencyHistogram FIND_BY_ID_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "findById");
+    private static final LatencyHistogram FIND_ALL_BY_IDS_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "findAllByIds");
+    private static final LatencyHistogram INCREMENT_DOWNLOAD_COUNTS_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "incrementDownloadCounts");
+    private static final LatencyHistogram FIND_STALE_FILES_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "findStaleFiles");
+    private static final LatencyHistogram DELETE_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "delete");
+    private static final LatencyHistogram DELETE_ALL_AND_RELEASE_TIMER = RepositoryTimers.of(FileMetadataRepository.class, "deleteAllAndRelease");
+    private static final int SCROLL_FETCH_SIZE = 256;
+    private static final int DOWNLOAD_COUNT_BATCH_SIZE = 1000;
+    private static final String LAST_ACTIVITY = "COALESCE(fm.lastDownloadDate, fm.uploadDate)";
 
     private final SessionFactory sessionFactory;
 
+    public enum BlobRelease {
+        /** The stored file is not a shared blob and can be deleted as soon as the row is gone. */
+        UNTRACKED,
+        /** Other rows still reference the blob. */
+        SHARED,
+        /** The blob is unreferenced and should be purged through {@link StoredBlobRepository#purge}. */
+        LAST_REFERENCE
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class DeletedFiles {
+        private final int deletedCount;
+        /** How each stored file referenced by the deleted rows was released. */
+        private final Map<String, BlobRelease> releases;
+    }
+
     public FileMetadataRepository() {
-        this.sessionFactory = HibernateUtil.getSessionFactory();
+        this(HibernateUtil.getSessionFactory());
     }
 
-    public List<FileMetadata> findAll() {
-        log.debug("Finding all file metadata");
+    protected FileMetadataRepository(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
 
-        Session session = sessionFactory.getCurrentSession();
+    public void scrollFiles(FileListQuery query, int maxResults, Consumer<FileMetadata> consumer) {
+        log.debug("Scrolling file metadata: {}", query);
+
+        StringBuilder hql = new StringBuilder("FROM FileMetadata fm WHERE 1 = 1");
+        if (query.getContentType() != null) {
+            hql.append(" AND fm.contentType = :contentType");
+        }
+        if (query.getMinSize() != null) {
+            hql.append(" AND fm.fileSize >= :minSize");
+        }
+        if (query.getMaxSize() != null) {
+            hql.append(" AND fm.fileSize <= :maxSize");
+        }
+        if (query.getUploadedFrom() != null) {
+            hql.append(" AND fm.uploadDate >= :uploadedFrom");
+        }
+        if (query.getUploadedTo() != null) {
+            hql.append(" AND fm.uploadDate < :uploadedTo");
+        }
+        if (query.getCursorUploadDate() != null) {
+            hql.append(" AND (fm.uploadDate < :cursorDate OR (fm.uploadDate = :cursorDate AND fm.id < :cursorId))");
+        }
+        hql.append(" ORDER BY fm.uploadDate DESC, fm.id DESC");
+
+        long started = System.nanoTime();
+        StatelessSession session = sessionFactory.openStatelessSession();
         try {
             session.beginTransaction();
 
-            List<FileMetadata> files = session.createQuery(
-                            "FROM FileMetadata ORDER BY uploadDate DESC", FileMetadata.class)
-                    .getResultList();
+            SelectionQuery<FileMetadata> selection = session.createSelectionQuery(hql.toString(), FileMetadata.class);
+            if (query.getContentType() != null) {
+                selection.setParameter("contentType", query.getContentType());
+            }
+            if (query.getMinSize() != null) {
+                selection.setParameter("minSize", query.getMinSize());
+            }
+            if (query.getMaxSize() != null) {
+                selection.setParameter("maxSize", query.getMaxSize());
+            }
+            if (query.getUploadedFrom() != null) {
+                selection.setParameter("uploadedFrom", query.getUploadedFrom());
+            }
+            if (query.getUploadedTo() != null) {
+                selection.setParameter("uploadedTo", query.getUploadedTo());
+            }
+            if (query.getCursorUploadDate() != null) {
+                selection.setParameter("cursorDate", query.getCursorUploadDate());
+                selection.setParameter("cursorId", query.getCursorId());
+            }
 
-            session.getTransaction().commit();
-            log.debug("Found {} files", files.size());
+            int count = 0;
+            try (ScrollableResults<FileMetadata> results = selection
+                    .setMaxResults(maxResults)
+                    .setFetchSize(SCROLL_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    count++;
+                }
+            }
 
-            return files;
+            session.getTransaction().commit();
+            log.debug("Scrolled {} files", count);
+        } catch (UncheckedIOException e) {
+            session.getTransaction().rollback();
+            throw e;
         } catch (Exception e) {
             session.getTransaction().rollback();
-            log.error("Error finding all file metadata", e);
+            log.error("Error scrolling file metadata", e);
             throw new RuntimeException("Database error", e);
+        } finally {
+            session.close();
+            SCROLL_FILES_TIMER.recordSince(started);
         }
     }
 
     public FileMetadata save(FileMetadata fileMetadata) {
         log.debug("Saving file metadata: {}", fileMetadata.getOriginalFileName());
 
+        long started = System.nanoTime();
         Session session = sessionFactory.getCurrentSession();
         try {
             session.beginTransaction();
@@ -63,12 +172,15 @@ public class FileMetadataRepository {
             session.getTransaction().rollback();
             log.error("Error saving file metadata", e);
             throw new RuntimeException("Database error", e);
+        } finally {
+            SAVE_TIMER.recordSince(started);
         }
     }
 
     public Optional<FileMetadata> findById(UUID id) {
         log.debug("Finding file metadata by ID: {}", id);
 
+        long started = System.nanoTime();
         Session session = sessionFactory.getCurrentSession();
         try {
             session.beginTransaction();
@@ -88,57 +200,122 @@ public class FileMetadataRepository {
             session.getTransaction().rollback();
             log.error("Error finding file metadata by ID: {}", id, e);
             throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_BY_ID_TIMER.recordSince(started);
         }
     }
 
+    public List<FileMetadata> findAllByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Finding file metadata for {} IDs", ids.size());
 
-    public void incrementDownloadCount(UUID id) {
-        log.debug("Incrementing download count for file ID: {}", id);
-
+        long started = System.nanoTime();
         Session session = sessionFactory.getCurrentSession();
         try {
             session.beginTransaction();
 
-            FileMetadata file = session.get(FileMetadata.class, id);
-            if (file == null) {
-                session.getTransaction().rollback();
-                log.warn("File not found with ID: {}, cannot increment download count", id);
-                return ;
-            }
-
-            session.createMutationQuery(
-                            "UPDATE FileMetadata fm SET fm.downloadCount = fm.downloadCount + 1, " +
-                                    "fm.lastDownloadDate = CURRENT_TIMESTAMP WHERE fm.id = :id")
-                    .setParameter("id", id)
-                    .executeUpdate();
+            List<FileMetadata> files = session
+                    .createSelectionQuery("FROM FileMetadata fm WHERE fm.id IN :ids", FileMetadata.class)
+                    .setParameterList("ids", ids)
+                    .getResultList();
 
             session.getTransaction().commit();
+            log.debug("Found {} of {} files", files.size(), ids.size());
 
-            log.debug("Successfully incremented download count for file: {} (new count: {})",
-                    file.getOriginalFileName(), file.getDownloadCount() + 1);
+            return files;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding file metadata for {} IDs", ids.size(), e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_ALL_BY_IDS_TIMER.recordSince(started);
+        }
+    }
+
+    public Set<UUID> incrementDownloadCounts(List<DownloadCountDelta> deltas) {
+        log.debug("Applying {} download count deltas", deltas.size());
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
 
+            Set<UUID> updated = new HashSet<>();
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "UPDATE file_metadata AS fm " +
+                                "SET download_count = fm.download_count + v.delta, " +
+                                "last_download_date = GREATEST(fm.last_download_date, v.last_download) " +
+                                "FROM unnest(?::uuid[], ?::integer[], ?::timestamp[]) AS v(id, delta, last_download) " +
+                                "WHERE fm.id = v.id " +
+                                "RETURNING fm.id")) {
+                    for (int from = 0; from < deltas.size(); from += DOWNLOAD_COUNT_BATCH_SIZE) {
+                        List<DownloadCountDelta> chunk =
+                                deltas.subList(from, Math.min(from + DOWNLOAD_COUNT_BATCH_SIZE, deltas.size()));
+                        bindDownloadCountChunk(connection, statement, chunk);
+                        try (ResultSet rows = statement.executeQuery()) {
+                            while (rows.next()) {
+                                updated.add(rows.getObject(1, UUID.class));
+                            }
+                        }
+                    }
+                }
+            });
+
+            session.getTransaction().commit();
+            log.debug("Download counts updated for {} of {} files", updated.size(), deltas.size());
+            return updated;
         } catch (Exception e) {
             session.getTransaction().rollback();
-            log.error("Error incrementing download count for file ID: {}", id, e);
+            log.error("Error applying download count deltas", e);
             throw new RuntimeException("Database error", e);
+        } finally {
+            INCREMENT_DOWNLOAD_COUNTS_TIMER.recordSince(started);
+        }
+    }
+
+    private void bindDownloadCountChunk(Connection connection, PreparedStatement statement,
+                                        List<DownloadCountDelta> chunk) throws SQLException {
+        UUID[] ids = new UUID[chunk.size()];
+        Integer[] counts = new Integer[chunk.size()];
+        Timestamp[] lastDownloads = new Timestamp[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            DownloadCountDelta delta = chunk.get(i);
+            ids[i] = delta.getFileId();
+            counts[i] = (int) delta.getDelta();
+            lastDownloads[i] = Timestamp.valueOf(delta.getLastDownloadDate());
         }
+        statement.setArray(1, connection.createArrayOf("uuid", ids));
+        statement.setArray(2, connection.createArrayOf("integer", counts));
+        statement.setArray(3, connection.createArrayOf("timestamp", lastDownloads));
     }
 
-    public List<FileMetadata> findFilesNotDownloadedForDays(int days) {
-        log.debug("Finding files not downloaded for {} days", days);
+    public List<FileMetadata> findStaleFiles(LocalDateTime threshold, LocalDateTime afterActivityDate,
+                                             UUID afterId, int limit) {
+        log.debug("Finding files not downloaded since {} after ({}, {})", threshold, afterActivityDate, afterId);
 
+        long started = System.nanoTime();
         Session session = sessionFactory.getCurrentSession();
         try {
             session.beginTransaction();
 
-            List<FileMetadata> files = session.createQuery(
-                            "FROM FileMetadata fm WHERE " +
-                                    "(fm.lastDownloadDate IS NULL AND fm.uploadDate < :dateThreshold) OR " +
-                                    "(fm.lastDownloadDate IS NOT NULL AND fm.lastDownloadDate < :dateThreshold) " +
-                                    "ORDER BY fm.uploadDate", FileMetadata.class)
-                    .setParameter("dateThreshold",
-                            LocalDateTime.now().minusDays(days))
-                    .getResultList();
+            String hql = "FROM FileMetadata fm WHERE " + LAST_ACTIVITY + " < :dateThreshold";
+            if (afterActivityDate != null) {
+                hql += " AND (" + LAST_ACTIVITY + " > :afterDate OR " +
+                        "(" + LAST_ACTIVITY + " = :afterDate AND fm.id > :afterId))";
+            }
+            hql += " ORDER BY " + LAST_ACTIVITY + ", fm.id";
+
+            SelectionQuery<FileMetadata> query = session.createSelectionQuery(hql, FileMetadata.class)
+                    .setParameter("dateThreshold", threshold)
+                    .setMaxResults(limit);
+            if (afterActivityDate != null) {
+                query.setParameter("afterDate", afterActivityDate)
+                        .setParameter("afterId", afterId);
+            }
+            List<FileMetadata> files = query.getResultList();
 
             session.getTransaction().commit();
             log.debug("Found {} old files", files.size());
@@ -148,12 +325,15 @@ public class FileMetadataRepository {
             session.getTransaction().rollback();
             log.error("Error finding old files", e);
             throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_STALE_FILES_TIMER.recordSince(started);
         }
     }
 
     public void delete(UUID id) {
         log.debug("Deleting file metadata with ID: {}", id);
 
+        long started = System.nanoTime();
         Session session = sessionFactory.getCurrentSession();
         try {
             session.beginTransaction();
@@ -171,6 +351,60 @@ public class FileMetadataRepository {
             session.getTransaction().rollback();
             log.error("Error deleting file metadata with ID: {}", id, e);
             throw new RuntimeException("Database error", e);
+        } finally {
+            DELETE_TIMER.recordSince(started);
+        }
+    }
+
+    /**
+     * Deletes the rows and drops their references to shared blobs in one statement and one transaction,
+     * so a retry after a partial failure never releases the same reference twice. Physical blobs are left
+     * in place; callers delete the released ones once this transaction has committed.
+     */
+    public DeletedFiles deleteAllAndRelease(Collection<UUID> ids) {
+        log.debug("Deleting {} file metadata rows and releasing their blobs", ids.size());
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            List<Object[]> rows = session.createNativeQuery(
+                            "WITH deleted AS (" +
+                                    "DELETE FROM file_metadata WHERE id IN (:ids) RETURNING id, stored_file_name" +
+                                    "), released AS (" +
+                                    "SELECT stored_file_name, COUNT(*) AS released FROM deleted " +
+                                    "GROUP BY stored_file_name" +
+                                    "), updated AS (" +
+                                    "UPDATE stored_blob b " +
+                                    "SET reference_count = GREATEST(b.reference_count - r.released, 0) " +
+                                    "FROM released r WHERE b.digest = r.stored_file_name " +
+                                    "RETURNING b.digest, b.reference_count" +
+                                    ") " +
+                                    "SELECT r.stored_file_name, r.released, u.reference_count " +
+                                    "FROM released r LEFT JOIN updated u ON u.digest = r.stored_file_name",
+                            Object[].class)
+                    .setParameterList("ids", ids)
+                    .getResultList();
+
+            session.getTransaction().commit();
+
+            int deletedCount = 0;
+            Map<String, BlobRelease> releases = new HashMap<>(rows.size());
+            for (Object[] row : rows) {
+                deletedCount += ((Number) row[1]).intValue();
+                Number remaining = (Number) row[2];
+                releases.put((String) row[0], remaining == null ? BlobRelease.UNTRACKED
+                        : remaining.longValue() > 0 ? BlobRelease.SHARED : BlobRelease.LAST_REFERENCE);
+            }
+            log.debug("Deleted {} file metadata rows referencing {} stored files", deletedCount, releases.size());
+            return new DeletedFiles(deletedCount, releases);
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error deleting {} file metadata rows", ids.size(), e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            DELETE_ALL_AND_RELEASE_TIMER.recordSince(started);
         }
     }
 }
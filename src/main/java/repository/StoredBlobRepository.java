@@ -0,0 +1,163 @@
+package repository;
+
+import config.HibernateUtil;
+import lombok.extern.slf4j.Slf4j;
+import metrics.LatencyHistogram;
+import metrics.RepositoryTimers;
+import model.entity.StoredBlob;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+public class StoredBlobRepository {
+    private static final LatencyHistogram ACQUIRE_TIMER = RepositoryTimers.of(StoredBlobRepository.class, "acquire");
+    private static final LatencyHistogram RELEASE_TIMER = RepositoryTimers.of(StoredBlobRepository.class, "release");
+    private static final LatencyHistogram PURGE_TIMER = RepositoryTimers.of(StoredBlobRepository.class, "purge");
+    private static final LatencyHistogram FIND_UNREFERENCED_TIMER = RepositoryTimers.of(StoredBlobRepository.class, "findUnreferenced");
+
+    private final SessionFactory sessionFactory;
+
+    public StoredBlobRepository() {
+        this(HibernateUtil.getSessionFactory());
+    }
+
+    protected StoredBlobRepository(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public long acquire(String digest, long blobSize) {
+        log.debug("Acquiring reference to blob: {}", digest);
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            Long referenceCount = session.createNativeQuery(
+                            "INSERT INTO stored_blob (digest, blob_size, reference_count, created_date) " +
+                                    "VALUES (:digest, :blobSize, 1, CURRENT_TIMESTAMP) " +
+                                    "ON CONFLICT (digest) DO UPDATE " +
+                                    "SET reference_count = stored_blob.reference_count + 1 " +
+                                    "RETURNING reference_count", Long.class)
+                    .setParameter("digest", digest)
+                    .setParameter("blobSize", blobSize)
+                    .getSingleResult();
+
+            session.getTransaction().commit();
+            log.debug("Blob {} now has {} references", digest, referenceCount);
+
+            return referenceCount;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error acquiring reference to blob: {}", digest, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            ACQUIRE_TIMER.recordSince(started);
+        }
+    }
+
+    /**
+     * Drops one reference to the blob. When it was the last one, {@code onLastReference} runs while the
+     * blob row is still locked, so a concurrent upload of the same content waits until the physical
+     * file is gone and then stores it again.
+     *
+     * @return {@code false} if the digest is not tracked as a shared blob
+     */
+    public boolean release(String digest, Consumer<String> onLastReference) {
+        log.debug("Releasing reference to blob: {}", digest);
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            StoredBlob blob = session.get(StoredBlob.class, digest, LockMode.PESSIMISTIC_WRITE);
+            if (blob == null) {
+                session.getTransaction().commit();
+                return false;
+            }
+
+            long remaining = blob.getReferenceCount() - 1;
+            if (remaining > 0) {
+                blob.setReferenceCount(remaining);
+            } else {
+                onLastReference.accept(digest);
+                session.remove(blob);
+                log.debug("Last reference to blob {} released", digest);
+            }
+
+            session.getTransaction().commit();
+            return true;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error releasing reference to blob: {}", digest, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            RELEASE_TIMER.recordSince(started);
+        }
+    }
+
+    /**
+     * Deletes a blob whose reference count dropped to zero in an earlier, committed transaction.
+     * {@code onPurge} runs under the blob row lock, so an upload that revived the blob in the meantime
+     * keeps its file, and one that arrives now waits until the physical file is gone.
+     *
+     * @return {@code false} if the blob is referenced again or was already purged
+     */
+    public boolean purge(String digest, Consumer<String> onPurge) {
+        log.debug("Purging unreferenced blob: {}", digest);
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            StoredBlob blob = session.get(StoredBlob.class, digest, LockMode.PESSIMISTIC_WRITE);
+            if (blob == null || blob.getReferenceCount() > 0) {
+                session.getTransaction().commit();
+                return false;
+            }
+
+            onPurge.accept(digest);
+            session.remove(blob);
+
+            session.getTransaction().commit();
+            log.debug("Blob {} purged", digest);
+            return true;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error purging blob: {}", digest, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            PURGE_TIMER.recordSince(started);
+        }
+    }
+
+    public List<String> findUnreferenced(int limit) {
+        log.debug("Finding up to {} unreferenced blobs", limit);
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            List<String> digests = session
+                    .createSelectionQuery("SELECT b.digest FROM StoredBlob b WHERE b.referenceCount = 0", String.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+
+            session.getTransaction().commit();
+            return digests;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding unreferenced blobs", e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_UNREFERENCED_TIMER.recordSince(started);
+        }
+    }
+}
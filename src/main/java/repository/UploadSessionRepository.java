@@ -0,0 +1,319 @@
+package repository;
+
+import config.HibernateUtil;
+import lombok.extern.slf4j.Slf4j;
+import metrics.LatencyHistogram;
+import metrics.RepositoryTimers;
+import model.entity.UploadSession;
+import model.entity.UploadSessionStatus;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+public class UploadSessionRepository {
+    private static final LatencyHistogram SAVE_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "save");
+    private static final LatencyHistogram FIND_BY_ID_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "findById");
+    private static final LatencyHistogram RESERVE_CHUNK_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "reserveChunk");
+    private static final LatencyHistogram DISCARD_CHUNK_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "discardChunk");
+    private static final LatencyHistogram RECORD_CHUNK_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "recordChunk");
+    private static final LatencyHistogram FIND_RECEIVED_CHUNKS_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "findReceivedChunks");
+    private static final LatencyHistogram FIND_CHUNK_CHECKSUMS_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "findChunkChecksums");
+    private static final LatencyHistogram UPDATE_STATUS_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "updateStatus");
+    private static final LatencyHistogram FIND_BY_STATUS_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "findByStatus");
+    private static final LatencyHistogram FIND_ABANDONED_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "findAbandoned");
+    private static final LatencyHistogram DELETE_TIMER = RepositoryTimers.of(UploadSessionRepository.class, "delete");
+
+    private final SessionFactory sessionFactory;
+
+    public UploadSessionRepository() {
+        this(HibernateUtil.getSessionFactory());
+    }
+
+    protected UploadSessionRepository(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public UploadSession save(UploadSession uploadSession) {
+        log.debug("Saving upload session for: {}", uploadSession.getOriginalFileName());
+
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+            session.persist(uploadSession);
+            session.getTransaction().commit();
+
+            log.debug("Upload session saved with ID: {}", uploadSession.getId());
+            return uploadSession;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error saving upload session: {}", uploadSession.getOriginalFileName(), e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            SAVE_TIMER.recordSince(started);
+        }
+    }
+
+    public Optional<UploadSession> findById(UUID id) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+            UploadSession uploadSession = session.get(UploadSession.class, id);
+            session.getTransaction().commit();
+
+            return Optional.ofNullable(uploadSession);
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding upload session with ID: {}", id, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_BY_ID_TIMER.recordSince(started);
+        }
+    }
+
+    /**
+     * Forgets a chunk before its bytes are rewritten, so a failed re-send leaves it missing instead of recorded
+     * with content that no longer matches. Holds a share lock on the session row, which serialises this with
+     * the status change in {@link #updateStatus}.
+     *
+     * @return {@code false} if the session no longer accepts chunks
+     */
+    public boolean reserveChunk(UUID sessionId, int chunkIndex) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            boolean open = lockOpenSession(session, sessionId);
+            if (open) {
+                session.createNativeMutationQuery(
+                                "DELETE FROM upload_chunk WHERE session_id = :sessionId AND chunk_index = :chunkIndex")
+                        .setParameter("sessionId", sessionId)
+                        .setParameter("chunkIndex", chunkIndex)
+                        .executeUpdate();
+            }
+
+            session.getTransaction().commit();
+            return open;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error reserving chunk {} of upload session {}", chunkIndex, sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            RESERVE_CHUNK_TIMER.recordSince(started);
+        }
+    }
+
+    public void discardChunk(UUID sessionId, int chunkIndex) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            session.createNativeMutationQuery(
+                            "DELETE FROM upload_chunk WHERE session_id = :sessionId AND chunk_index = :chunkIndex")
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("chunkIndex", chunkIndex)
+                    .executeUpdate();
+
+            session.getTransaction().commit();
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error discarding chunk {} of upload session {}", chunkIndex, sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            DISCARD_CHUNK_TIMER.recordSince(started);
+        }
+    }
+
+    /**
+     * @return {@code false} if the session no longer accepts chunks and nothing was recorded
+     */
+    public boolean recordChunk(UUID sessionId, int chunkIndex, String checksum) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            if (!lockOpenSession(session, sessionId)) {
+                session.getTransaction().commit();
+                return false;
+            }
+
+            session.createNativeMutationQuery(
+                            "INSERT INTO upload_chunk (session_id, chunk_index, checksum, received_date) " +
+                                    "VALUES (:sessionId, :chunkIndex, :checksum, CURRENT_TIMESTAMP) " +
+                                    "ON CONFLICT (session_id, chunk_index) DO UPDATE " +
+                                    "SET checksum = EXCLUDED.checksum, received_date = EXCLUDED.received_date")
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("chunkIndex", chunkIndex)
+                    .setParameter("checksum", checksum)
+                    .executeUpdate();
+
+            session.getTransaction().commit();
+            return true;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error recording chunk {} of upload session {}", chunkIndex, sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            RECORD_CHUNK_TIMER.recordSince(started);
+        }
+    }
+
+    public List<Integer> findReceivedChunks(UUID sessionId) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            List<Integer> chunks = session.createNativeQuery(
+                            "SELECT chunk_index FROM upload_chunk WHERE session_id = :sessionId ORDER BY chunk_index",
+                            Integer.class)
+                    .setParameter("sessionId", sessionId)
+                    .getResultList();
+
+            session.getTransaction().commit();
+            return chunks;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding chunks of upload session {}", sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_RECEIVED_CHUNKS_TIMER.recordSince(started);
+        }
+    }
+
+    /**
+     * @return the recorded chunk checksums ordered by chunk index
+     */
+    public List<String> findChunkChecksums(UUID sessionId) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            List<String> checksums = session.createNativeQuery(
+                            "SELECT checksum FROM upload_chunk WHERE session_id = :sessionId ORDER BY chunk_index",
+                            String.class)
+                    .setParameter("sessionId", sessionId)
+                    .getResultList();
+
+            session.getTransaction().commit();
+            return checksums;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding chunk checksums of upload session {}", sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_CHUNK_CHECKSUMS_TIMER.recordSince(started);
+        }
+    }
+
+    public boolean updateStatus(UUID sessionId, UploadSessionStatus expected, UploadSessionStatus status) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            int updated = session.createMutationQuery(
+                            "UPDATE UploadSession s SET s.status = :status WHERE s.id = :id AND s.status = :expected")
+                    .setParameter("status", status)
+                    .setParameter("id", sessionId)
+                    .setParameter("expected", expected)
+                    .executeUpdate();
+
+            session.getTransaction().commit();
+            return updated == 1;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error updating status of upload session {}", sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            UPDATE_STATUS_TIMER.recordSince(started);
+        }
+    }
+
+    public List<UUID> findByStatus(UploadSessionStatus status) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            List<UUID> ids = session.createSelectionQuery(
+                            "SELECT s.id FROM UploadSession s WHERE s.status = :status", UUID.class)
+                    .setParameter("status", status)
+                    .getResultList();
+
+            session.getTransaction().commit();
+            return ids;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding upload sessions with status {}", status, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_BY_STATUS_TIMER.recordSince(started);
+        }
+    }
+
+    public List<UUID> findAbandoned(LocalDateTime threshold, int limit) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            List<UUID> ids = session.createNativeQuery(
+                            "SELECT s.id FROM upload_session s WHERE s.status = 'OPEN' AND s.created_date < :threshold " +
+                                    "AND NOT EXISTS (SELECT 1 FROM upload_chunk c " +
+                                    "WHERE c.session_id = s.id AND c.received_date >= :threshold) " +
+                                    "ORDER BY s.created_date LIMIT :limit", UUID.class)
+                    .setParameter("threshold", threshold)
+                    .setParameter("limit", limit)
+                    .getResultList();
+
+            session.getTransaction().commit();
+            return ids;
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error finding abandoned upload sessions", e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            FIND_ABANDONED_TIMER.recordSince(started);
+        }
+    }
+
+    public void delete(UUID sessionId) {
+        long started = System.nanoTime();
+        Session session = sessionFactory.getCurrentSession();
+        try {
+            session.beginTransaction();
+
+            session.createMutationQuery("DELETE FROM UploadSession s WHERE s.id = :id")
+                    .setParameter("id", sessionId)
+                    .executeUpdate();
+
+            session.getTransaction().commit();
+            log.debug("Upload session deleted: {}", sessionId);
+        } catch (Exception e) {
+            session.getTransaction().rollback();
+            log.error("Error deleting upload session {}", sessionId, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            DELETE_TIMER.recordSince(started);
+        }
+    }
+
+    private boolean lockOpenSession(Session session, UUID sessionId) {
+        String status = session.createNativeQuery(
+                        "SELECT status FROM upload_session WHERE id = :id FOR SHARE", String.class)
+                .setParameter("id", sessionId)
+                .uniqueResult();
+        return UploadSessionStatus.OPEN.name().equals(status);
+    }
+}
@@ -6,19 +6,28 @@ import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
 import org.quartz.Trigger;
 import org.quartz.TriggerBuilder;
 import org.quartz.impl.StdSchedulerFactory;
+import service.ChunkedUploadService;
 import service.FileCleanupService;
 
+import java.time.Duration;
+
 @Slf4j
 public class FileCleanupScheduler {
     private final Scheduler scheduler;
     private final FileCleanupService fileCleanupService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final Duration uploadSessionCleanupInterval;
 
-    public FileCleanupScheduler(FileCleanupService fileCleanupService) throws SchedulerException {
+    public FileCleanupScheduler(FileCleanupService fileCleanupService, ChunkedUploadService chunkedUploadService,
+                                Duration uploadSessionCleanupInterval) throws SchedulerException {
         this.scheduler = StdSchedulerFactory.getDefaultScheduler();
         this.fileCleanupService = fileCleanupService;
+        this.chunkedUploadService = chunkedUploadService;
+        this.uploadSessionCleanupInterval = uploadSessionCleanupInterval;
     }
 
     public void start() throws SchedulerException {
@@ -34,9 +43,25 @@ public class FileCleanupScheduler {
                 .build();
 
         scheduler.scheduleJob(job, trigger);
+
+        JobDetail uploadSessionJob = JobBuilder.newJob(UploadSessionCleanupJob.class)
+                .withIdentity("uploadSessionCleanupJob", "fileStorage")
+                .build();
+
+        uploadSessionJob.getJobDataMap().put("chunkedUploadService", chunkedUploadService);
+
+        Trigger uploadSessionTrigger = TriggerBuilder.newTrigger()
+                .withIdentity("uploadSessionCleanupTrigger", "fileStorage")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMilliseconds(uploadSessionCleanupInterval.toMillis())
+                        .repeatForever())
+                .build();
+
+        scheduler.scheduleJob(uploadSessionJob, uploadSessionTrigger);
         scheduler.start();
 
-        log.info("File cleanup scheduler started. Will run daily at 2:00 AM");
+        log.info("File cleanup scheduler started. Will run daily at 2:00 AM, " +
+                "abandoned uploads are collected every {}", uploadSessionCleanupInterval);
     }
 
     public void stop() throws SchedulerException {
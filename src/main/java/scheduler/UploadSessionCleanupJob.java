@@ -0,0 +1,29 @@
+package scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import service.ChunkedUploadService;
+
+@Slf4j
+@DisallowConcurrentExecution
+public class UploadSessionCleanupJob implements Job {
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        log.debug("Executing upload session cleanup job");
+
+        try {
+            ChunkedUploadService chunkedUploadService = (ChunkedUploadService)
+                    context.getJobDetail().getJobDataMap().get("chunkedUploadService");
+
+            chunkedUploadService.cleanupAbandonedSessions();
+
+        } catch (Exception e) {
+            log.error("Error executing upload session cleanup job", e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
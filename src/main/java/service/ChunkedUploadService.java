@@ -0,0 +1,364 @@
+package service;
+
+import lombok.extern.slf4j.Slf4j;
+import model.dto.FileResponse;
+import model.dto.UploadSessionResponse;
+import model.entity.UploadSession;
+import model.entity.UploadSessionStatus;
+import repository.UploadSessionRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+@Slf4j
+public class ChunkedUploadService {
+    private static final String PART_SUFFIX = ".part";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_CHUNK_COUNT = 100_000;
+    private static final long MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int CLEANUP_BATCH_SIZE = 500;
+
+    private final FileStorageService fileStorageService;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final long defaultChunkSize;
+    private final long maxChunkSize;
+    private final Duration sessionTtl;
+
+    public ChunkedUploadService(FileStorageService fileStorageService, UploadSessionRepository uploadSessionRepository,
+                                long defaultChunkSize, long maxChunkSize, Duration sessionTtl) {
+        this.fileStorageService = fileStorageService;
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.sessionTtl = sessionTtl;
+    }
+
+    public UploadSessionResponse initiate(String fileName, String contentType, long totalSize, Long requestedChunkSize) {
+        if (totalSize <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        long chunkSize = requestedChunkSize != null ? requestedChunkSize : defaultChunkSize;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + maxChunkSize);
+        }
+        long chunkCount = (totalSize + chunkSize - 1) / chunkSize;
+        if (chunkCount > MAX_CHUNK_COUNT) {
+            throw new IllegalArgumentException("Too many chunks, use a larger chunk size");
+        }
+
+        UploadSession uploadSession = uploadSessionRepository.save(UploadSession.builder()
+                .originalFileName(fileName)
+                .contentType(contentType)
+                .totalSize(totalSize)
+                .chunkSize(chunkSize)
+                .chunkCount((int) chunkCount)
+                .build());
+
+        Path partPath = getPartPath(uploadSession.getId());
+        try (RandomAccessFile file = new RandomAccessFile(partPath.toFile(), "rw")) {
+            file.setLength(totalSize);
+        } catch (IOException ex) {
+            uploadSessionRepository.delete(uploadSession.getId());
+            log.error("Could not allocate {} bytes for upload session {}", totalSize, uploadSession.getId(), ex);
+            throw new RuntimeException("Could not store file", ex);
+        }
+
+        log.info("Chunked upload started: {} ({} bytes in {} chunks) -> {}",
+                fileName, totalSize, chunkCount, uploadSession.getId());
+        return toResponse(uploadSession, 0, null);
+    }
+
+    public String writeChunk(UUID sessionId, int chunkIndex, InputStream body, String expectedChecksum)
+            throws IOException {
+        UploadSession uploadSession = getOpenSession(sessionId);
+        if (chunkIndex < 0 || chunkIndex >= uploadSession.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index out of range: " + chunkIndex);
+        }
+
+        if (!uploadSessionRepository.reserveChunk(sessionId, chunkIndex)) {
+            throw new IllegalArgumentException("Upload session is no longer accepting chunks");
+        }
+
+        long expectedLength = uploadSession.getChunkLength(chunkIndex);
+        long offset = (long) chunkIndex * uploadSession.getChunkSize();
+        MessageDigest digest = createDigest();
+        long written = 0;
+
+        try (FileChannel channel = FileChannel.open(getPartPath(sessionId), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > expectedLength) {
+                    throw new IllegalArgumentException("Chunk " + chunkIndex + " exceeds " + expectedLength + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    written += channel.write(byteBuffer, offset + written);
+                }
+            }
+        }
+
+        if (written != expectedLength) {
+            throw new IllegalArgumentException("Chunk " + chunkIndex + " has " + written +
+                    " bytes, expected " + expectedLength);
+        }
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+            throw new IllegalArgumentException("Checksum mismatch for chunk " + chunkIndex);
+        }
+
+        if (!uploadSessionRepository.recordChunk(sessionId, chunkIndex, checksum)) {
+            throw new IllegalArgumentException("Upload session is no longer accepting chunks");
+        }
+        log.debug("Chunk {} of upload session {} stored ({} bytes)", chunkIndex, sessionId, written);
+        return checksum;
+    }
+
+    public UploadSessionResponse getStatus(UUID sessionId) {
+        UploadSession uploadSession = getSession(sessionId);
+        List<Integer> received = uploadSessionRepository.findReceivedChunks(sessionId);
+        return toResponse(uploadSession, received.size(), findMissingChunks(uploadSession, received));
+    }
+
+    public FileResponse complete(UUID sessionId) {
+        UploadSession uploadSession = getSession(sessionId);
+        if (!uploadSessionRepository.updateStatus(sessionId, UploadSessionStatus.OPEN, UploadSessionStatus.COMPLETING)) {
+            throw new IllegalArgumentException("Upload session is already being completed");
+        }
+
+        Path partPath = getPartPath(sessionId);
+        try {
+            List<String> chunkChecksums = uploadSessionRepository.findChunkChecksums(sessionId);
+            if (chunkChecksums.size() != uploadSession.getChunkCount()) {
+                throw new IllegalArgumentException("Upload is missing " +
+                        (uploadSession.getChunkCount() - chunkChecksums.size()) + " chunks");
+            }
+
+            FileResponse response = fileStorageService.storeStagedFile(
+                    assemble(uploadSession, partPath, chunkChecksums));
+            deletePartFile(partPath);
+            uploadSessionRepository.delete(sessionId);
+            log.info("Chunked upload completed: {} -> {}", uploadSession.getOriginalFileName(), response.getId());
+            return response;
+        } catch (IOException ex) {
+            reopen(sessionId, partPath);
+            log.error("Failed to complete upload session {}", sessionId, ex);
+            throw new RuntimeException("Could not store file", ex);
+        } catch (RuntimeException ex) {
+            reopen(sessionId, partPath);
+            throw ex;
+        }
+    }
+
+    /**
+     * Reopens sessions left COMPLETING by a process that stopped while assembling them, so they can be
+     * completed again or expire through {@link #cleanupAbandonedSessions()}. Call once at startup, before
+     * any completion can be in progress.
+     */
+    public void reopenInterruptedSessions() {
+        List<UUID> interrupted = uploadSessionRepository.findByStatus(UploadSessionStatus.COMPLETING);
+        for (UUID sessionId : interrupted) {
+            reopen(sessionId, getPartPath(sessionId));
+        }
+        if (!interrupted.isEmpty()) {
+            log.info("Reopened {} upload sessions interrupted while completing", interrupted.size());
+        }
+    }
+
+    public void cleanupAbandonedSessions() {
+        LocalDateTime threshold = LocalDateTime.now().minus(sessionTtl);
+        int removed = 0;
+
+        List<UUID> abandoned;
+        int removedInBatch;
+        do {
+            abandoned = uploadSessionRepository.findAbandoned(threshold, CLEANUP_BATCH_SIZE);
+            removedInBatch = 0;
+            for (UUID sessionId : abandoned) {
+                try {
+                    Files.deleteIfExists(getPartPath(sessionId));
+                    uploadSessionRepository.delete(sessionId);
+                    removedInBatch++;
+                } catch (IOException e) {
+                    log.error("Could not remove data of abandoned upload session {}", sessionId, e);
+                }
+            }
+            removed += removedInBatch;
+        } while (abandoned.size() == CLEANUP_BATCH_SIZE && removedInBatch == abandoned.size());
+
+        log.info("Removed {} abandoned upload sessions", removed);
+    }
+
+    private StagedFile assemble(UploadSession uploadSession, Path partPath, List<String> chunkChecksums)
+            throws IOException {
+        MessageDigest digest = createDigest();
+        CRC32 crc = new CRC32();
+        byte[] head = new byte[ContentTypeSniffer.SNIFF_LENGTH];
+
+        try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.READ)) {
+            int headLength = readHead(channel, head);
+            String sniffedContentType = ContentTypeSniffer.detect(head, headLength);
+            ContentCoding storageCoding = fileStorageService.selectStorageCoding(uploadSession.getContentType(),
+                    sniffedContentType);
+            String storedFileName = UUID.randomUUID().toString();
+            Path stagedPath = storageCoding != null
+                    ? fileStorageService.getIncomingPath().resolve(storedFileName)
+                    : partPath;
+
+            try (OutputStream out = storageCoding != null
+                    ? storageCoding.encode(Files.newOutputStream(stagedPath, StandardOpenOption.CREATE_NEW))
+                    : OutputStream.nullOutputStream()) {
+                ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                MessageDigest chunkDigest = createDigest();
+                int chunkIndex = 0;
+                long chunkRemaining = uploadSession.getChunkLength(chunkIndex);
+                while (chunkIndex < uploadSession.getChunkCount()) {
+                    buffer.limit((int) Math.min(buffer.capacity(), chunkRemaining));
+                    if (channel.read(buffer) == -1) {
+                        throw new IOException("Upload part file is shorter than " + uploadSession.getTotalSize() + " bytes");
+                    }
+                    buffer.flip();
+                    out.write(buffer.array(), 0, buffer.limit());
+                    digest.update(buffer.array(), 0, buffer.limit());
+                    crc.update(buffer.array(), 0, buffer.limit());
+                    chunkDigest.update(buffer.array(), 0, buffer.limit());
+                    chunkRemaining -= buffer.limit();
+                    buffer.clear();
+
+                    if (chunkRemaining == 0) {
+                        verifyChunk(uploadSession.getId(), chunkIndex, chunkDigest, chunkChecksums.get(chunkIndex));
+                        if (++chunkIndex < uploadSession.getChunkCount()) {
+                            chunkRemaining = uploadSession.getChunkLength(chunkIndex);
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (storageCoding != null) {
+                    Files.deleteIfExists(stagedPath);
+                }
+                throw e;
+            }
+
+            return StagedFile.builder()
+                    .storedFileName(storedFileName)
+                    .path(stagedPath)
+                    .originalFileName(uploadSession.getOriginalFileName())
+                    .contentType(fileStorageService.resolveContentType(uploadSession.getContentType(),
+                            sniffedContentType))
+                    .size(uploadSession.getTotalSize())
+                    .checksum(HexFormat.of().formatHex(digest.digest()))
+                    .crc32(crc.getValue())
+                    .storageCoding(storageCoding)
+                    .storedSize(Files.size(stagedPath))
+                    .build();
+        }
+    }
+
+    private void verifyChunk(UUID sessionId, int chunkIndex, MessageDigest chunkDigest, String recordedChecksum) {
+        String checksum = HexFormat.of().formatHex(chunkDigest.digest());
+        if (!checksum.equalsIgnoreCase(recordedChecksum)) {
+            uploadSessionRepository.discardChunk(sessionId, chunkIndex);
+            throw new IllegalArgumentException("Chunk " + chunkIndex + " does not match its recorded checksum, " +
+                    "upload it again");
+        }
+    }
+
+    private int readHead(FileChannel channel, byte[] head) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(head);
+        int read;
+        do {
+            read = channel.read(buffer, buffer.position());
+        } while (read != -1 && buffer.hasRemaining());
+        return buffer.position();
+    }
+
+    private void deletePartFile(Path partPath) {
+        try {
+            Files.deleteIfExists(partPath);
+        } catch (IOException e) {
+            log.warn("Could not delete assembled upload part: {}", partPath, e);
+        }
+    }
+
+    private void reopen(UUID sessionId, Path partPath) {
+        try {
+            if (Files.exists(partPath)) {
+                uploadSessionRepository.updateStatus(sessionId, UploadSessionStatus.COMPLETING, UploadSessionStatus.OPEN);
+            } else {
+                uploadSessionRepository.delete(sessionId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not reset upload session {}", sessionId, e);
+        }
+    }
+
+    private UploadSession getSession(UUID sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown upload session: " + sessionId));
+    }
+
+    private UploadSession getOpenSession(UUID sessionId) {
+        UploadSession uploadSession = getSession(sessionId);
+        if (uploadSession.getStatus() != UploadSessionStatus.OPEN) {
+            throw new IllegalArgumentException("Upload session is no longer accepting chunks");
+        }
+        return uploadSession;
+    }
+
+    private Path getPartPath(UUID sessionId) {
+        return fileStorageService.getIncomingPath().resolve(sessionId + PART_SUFFIX);
+    }
+
+    private List<Integer> findMissingChunks(UploadSession uploadSession, List<Integer> received) {
+        BitSet receivedChunks = new BitSet(uploadSession.getChunkCount());
+        received.forEach(receivedChunks::set);
+
+        List<Integer> missing = new ArrayList<>(uploadSession.getChunkCount() - receivedChunks.cardinality());
+        for (int index = receivedChunks.nextClearBit(0); index < uploadSession.getChunkCount();
+             index = receivedChunks.nextClearBit(index + 1)) {
+            missing.add(index);
+        }
+        return missing;
+    }
+
+    private UploadSessionResponse toResponse(UploadSession uploadSession, int receivedChunks,
+                                             List<Integer> missingChunks) {
+        return UploadSessionResponse.builder()
+                .id(uploadSession.getId())
+                .originalFileName(uploadSession.getOriginalFileName())
+                .totalSize(uploadSession.getTotalSize())
+                .chunkSize(uploadSession.getChunkSize())
+                .chunkCount(uploadSession.getChunkCount())
+                .status(uploadSession.getStatus().name())
+                .receivedChunks(receivedChunks)
+                .missingChunks(missingChunks)
+                .build();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
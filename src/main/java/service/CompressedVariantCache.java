@@ -0,0 +1,157 @@
+package service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import service.abstracts.ContentSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+@Slf4j
+public class CompressedVariantCache {
+    private static final String VARIANTS_DIRECTORY = ".variants";
+    private static final int MAX_TRACKED_KEYS = 100_000;
+    private static final Duration HIT_WINDOW = Duration.ofHours(1);
+    private static final int MAX_PENDING_BUILDS = 64;
+
+    private final Path root;
+    private final int hotThreshold;
+    private final long maxSourceSize;
+    private final Cache<String, AtomicInteger> hits;
+    private final Cache<String, Path> variants;
+    private final Set<String> building = ConcurrentHashMap.newKeySet();
+    private final ExecutorService builder;
+
+    public CompressedVariantCache(Path uploadPath, long maxSizeBytes, int hotThreshold, long maxSourceSize) {
+        this.root = uploadPath.resolve(VARIANTS_DIRECTORY);
+        this.hotThreshold = hotThreshold;
+        this.maxSourceSize = maxSourceSize;
+        this.hits = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterAccess(HIT_WINDOW)
+                .build();
+        this.variants = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, maxSizeBytes / 1024))
+                .weigher((String key, Path path) -> weighInKilobytes(path))
+                .removalListener((String key, Path path, RemovalCause cause) -> deleteVariant(path))
+                .build();
+        this.builder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_BUILDS), runnable -> {
+                    Thread thread = new Thread(runnable, "compressed-variant-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        try {
+            clearDirectory();
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not prepare compressed variant directory " + root, e);
+        }
+        log.info("Compressed variant cache enabled: {} bytes under {}, hot after {} downloads",
+                maxSizeBytes, root.toAbsolutePath(), hotThreshold);
+    }
+
+    /**
+     * Returns the cached variant of {@code storageKey} encoded with {@code coding}, or {@code null} when the
+     * caller should compress on the fly. Once the content has become hot, a single background build of the
+     * variant is started and later requests are served from it when it is ready.
+     */
+    public Path getVariant(String storageKey, ContentCoding coding, long sourceSize, ContentSource source) {
+        String cacheKey = coding.getToken() + ":" + storageKey;
+        Path variant = variants.getIfPresent(cacheKey);
+        if (variant != null) {
+            return variant;
+        }
+
+        if (sourceSize > maxSourceSize
+                || hits.get(cacheKey, key -> new AtomicInteger()).incrementAndGet() < hotThreshold) {
+            return null;
+        }
+
+        if (building.add(cacheKey)) {
+            try {
+                builder.execute(() -> build(cacheKey, storageKey, coding, source));
+                hits.invalidate(cacheKey);
+            } catch (RejectedExecutionException e) {
+                building.remove(cacheKey);
+                log.debug("Compressed variant build queue is full, not caching {} yet", cacheKey);
+            }
+        }
+        return null;
+    }
+
+    private void build(String cacheKey, String storageKey, ContentCoding coding, ContentSource source) {
+        try {
+            variants.asMap().putIfAbsent(cacheKey, createVariant(storageKey, coding, source));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not cache {} variant of {}", coding.getToken(), storageKey, e);
+        } finally {
+            building.remove(cacheKey);
+        }
+    }
+
+    private Path createVariant(String storageKey, ContentCoding coding, ContentSource source) throws IOException {
+        Path target = root.resolve(storageKey + coding.getFileExtension());
+        Path tempFile = root.resolve(".tmp-" + UUID.randomUUID());
+        try (InputStream in = source.open();
+             OutputStream out = coding.encode(Files.newOutputStream(tempFile))) {
+            in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Cached {} variant of {} ({} bytes)", coding.getToken(), storageKey, Files.size(target));
+        return target;
+    }
+
+    private void clearDirectory() throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static int weighInKilobytes(Path path) {
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, Files.size(path) / 1024 + 1);
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    private static void deleteVariant(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete compressed variant: {}", path, e);
+        }
+    }
+}
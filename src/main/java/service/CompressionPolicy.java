@@ -0,0 +1,76 @@
+package service;
+
+import java.util.Locale;
+import java.util.Set;
+
+public class CompressionPolicy {
+    private static final Set<String> TEXT_APPLICATION_TYPES = Set.of(
+            "application/json",
+            "application/xml",
+            "application/javascript",
+            "application/x-javascript",
+            "application/ecmascript",
+            "application/x-ndjson",
+            "application/csv",
+            "application/sql",
+            "application/x-sh",
+            "application/x-yaml",
+            "application/yaml",
+            "application/rtf",
+            "application/postscript",
+            "image/svg+xml"
+    );
+    private static final Set<String> COMPRESSIBLE_BINARY_TYPES = Set.of(
+            "application/x-tar",
+            "application/wasm",
+            "image/bmp",
+            "image/x-icon",
+            "font/ttf",
+            "font/otf"
+    );
+
+    private final boolean responseCompression;
+    private final long minSize;
+    private final boolean storageCompression;
+
+    public CompressionPolicy(boolean responseCompression, long minSize, boolean storageCompression) {
+        this.responseCompression = responseCompression;
+        this.minSize = minSize;
+        this.storageCompression = storageCompression;
+    }
+
+    public boolean isCompressible(String contentType, long size) {
+        return responseCompression && size >= minSize && isCompressibleType(toMediaType(contentType));
+    }
+
+    public ContentCoding selectStorageCoding(String contentType) {
+        String mediaType = toMediaType(contentType);
+        if (!storageCompression || !isCompressibleType(mediaType)) {
+            return null;
+        }
+        return isTextType(mediaType) ? ContentCoding.ZSTD : ContentCoding.LZ4;
+    }
+
+    private static String toMediaType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        String mediaType = contentType.toLowerCase(Locale.ROOT);
+        int parameters = mediaType.indexOf(';');
+        if (parameters >= 0) {
+            mediaType = mediaType.substring(0, parameters);
+        }
+        return mediaType.trim();
+    }
+
+    private static boolean isCompressibleType(String mediaType) {
+        return isTextType(mediaType) || COMPRESSIBLE_BINARY_TYPES.contains(mediaType);
+    }
+
+    private static boolean isTextType(String mediaType) {
+        return mediaType.startsWith("text/")
+                || TEXT_APPLICATION_TYPES.contains(mediaType)
+                || mediaType.endsWith("+json")
+                || mediaType.endsWith("+xml");
+    }
+}
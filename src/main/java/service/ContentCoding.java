@@ -0,0 +1,79 @@
+package service;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import lombok.Getter;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Getter
+public enum ContentCoding {
+    ZSTD("zstd", ".zst", true) {
+        @Override
+        public OutputStream encode(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, ZSTD_LEVEL);
+        }
+
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    },
+    GZIP("gzip", ".gz", true) {
+        @Override
+        public OutputStream encode(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    },
+    LZ4("lz4", ".lz4", false) {
+        @Override
+        public OutputStream encode(OutputStream out) throws IOException {
+            return new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB);
+        }
+
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new LZ4FrameInputStream(in);
+        }
+    };
+
+    private static final int ZSTD_LEVEL = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String token;
+    private final String fileExtension;
+    private final boolean httpCoding;
+
+    ContentCoding(String token, String fileExtension, boolean httpCoding) {
+        this.token = token;
+        this.fileExtension = fileExtension;
+        this.httpCoding = httpCoding;
+    }
+
+    public static ContentCoding fromToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        for (ContentCoding coding : values()) {
+            if (coding.token.equals(token)) {
+                return coding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown content coding: " + token);
+    }
+
+    public abstract OutputStream encode(OutputStream out) throws IOException;
+
+    public abstract InputStream decode(InputStream in) throws IOException;
+}
@@ -0,0 +1,64 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+
+public final class ContentTypeSniffer {
+    public static final int SNIFF_LENGTH = 16;
+
+    private static final Signature[] SIGNATURES = {
+            new Signature("image/png", 0, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+            new Signature("image/jpeg", 0, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+            new Signature("image/gif", 0, ascii("GIF8")),
+            new Signature("image/webp", 8, ascii("WEBP")),
+            new Signature("application/pdf", 0, ascii("%PDF-")),
+            new Signature("application/zip", 0, new byte[]{'P', 'K', 0x03, 0x04}),
+            new Signature("application/gzip", 0, new byte[]{0x1F, (byte) 0x8B}),
+            new Signature("application/x-7z-compressed", 0, new byte[]{'7', 'z', (byte) 0xBC, (byte) 0xAF, 0x27, 0x1C}),
+            new Signature("application/x-rar-compressed", 0, ascii("Rar!")),
+            new Signature("application/zstd", 0, new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD}),
+            new Signature("video/mp4", 4, ascii("ftyp")),
+            new Signature("audio/mpeg", 0, ascii("ID3")),
+            new Signature("application/x-executable", 0, new byte[]{0x7F, 'E', 'L', 'F'}),
+            new Signature("application/x-msdownload", 0, ascii("MZ"))
+    };
+
+    private ContentTypeSniffer() {
+    }
+
+    public static String detect(byte[] head, int length) {
+        for (Signature signature : SIGNATURES) {
+            if (signature.matches(head, length)) {
+                return signature.contentType;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class Signature {
+        private final String contentType;
+        private final int offset;
+        private final byte[] magic;
+
+        private Signature(String contentType, int offset, byte[] magic) {
+            this.contentType = contentType;
+            this.offset = offset;
+            this.magic = magic;
+        }
+
+        private boolean matches(byte[] head, int length) {
+            if (length < offset + magic.length) {
+                return false;
+            }
+            for (int i = 0; i < magic.length; i++) {
+                if (head[offset + i] != magic[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
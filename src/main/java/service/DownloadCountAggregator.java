@@ -0,0 +1,142 @@
+package service;
+
+import lombok.extern.slf4j.Slf4j;
+import model.dto.DownloadCountDelta;
+import repository.FileMetadataRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+public class DownloadCountAggregator implements AutoCloseable {
+    private final FileMetadataRepository fileMetadataRepository;
+    private final int flushThreshold;
+    private final Map<UUID, PendingCount> pendingCounts = new ConcurrentHashMap<>();
+    private final List<Map.Entry<UUID, PendingCount>> retiredCounts = new ArrayList<>();
+    private final LongAdder pendingEvents = new LongAdder();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    public DownloadCountAggregator(FileMetadataRepository fileMetadataRepository,
+                                   long flushIntervalMillis, int flushThreshold) {
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.flushThreshold = flushThreshold;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "download-count-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(UUID fileId) {
+        record(fileId, 1);
+    }
+
+    public void record(UUID fileId, long count) {
+        PendingCount pendingCount = pendingCounts.computeIfAbsent(fileId, id -> new PendingCount());
+        pendingCount.count.add(count);
+        pendingCount.lastDownload.accumulate(System.currentTimeMillis());
+        pendingEvents.add(count);
+
+        if (pendingEvents.sum() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    public long getPendingCount() {
+        return pendingEvents.sum();
+    }
+
+    public synchronized void flush() {
+        flushRequested.set(false);
+        List<DownloadCountDelta> batch = new ArrayList<>();
+
+        for (Map.Entry<UUID, PendingCount> retired : retiredCounts) {
+            drainInto(batch, retired.getKey(), retired.getValue());
+        }
+        retiredCounts.clear();
+
+        for (Map.Entry<UUID, PendingCount> entry : pendingCounts.entrySet()) {
+            if (!drainInto(batch, entry.getKey(), entry.getValue())
+                    && pendingCounts.remove(entry.getKey(), entry.getValue())) {
+                retiredCounts.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long flushedEvents = batch.stream().mapToLong(DownloadCountDelta::getDelta).sum();
+        try {
+            fileMetadataRepository.incrementDownloadCounts(batch);
+            pendingEvents.add(-flushedEvents);
+            log.debug("Flushed {} download events for {} files", flushedEvents, batch.size());
+        } catch (RuntimeException e) {
+            batch.forEach(this::restore);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        // the second pass drains counters retired by the first one
+        flush();
+        log.info("Download count aggregator stopped, {} events left unflushed", getPendingCount());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error flushing download counts, {} events pending", getPendingCount(), e);
+        }
+    }
+
+    private boolean drainInto(List<DownloadCountDelta> batch, UUID fileId, PendingCount pendingCount) {
+        long delta = pendingCount.count.sumThenReset();
+        if (delta == 0) {
+            return false;
+        }
+        batch.add(DownloadCountDelta.builder()
+                .fileId(fileId)
+                .delta(delta)
+                .lastDownloadDate(LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(pendingCount.lastDownload.get()), ZoneId.systemDefault()))
+                .build());
+        return true;
+    }
+
+    private void restore(DownloadCountDelta delta) {
+        PendingCount pendingCount = pendingCounts.computeIfAbsent(delta.getFileId(), id -> new PendingCount());
+        pendingCount.count.add(delta.getDelta());
+        pendingCount.lastDownload.accumulate(
+                delta.getLastDownloadDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static class PendingCount {
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator lastDownload = new LongAccumulator(Math::max, 0);
+    }
+}
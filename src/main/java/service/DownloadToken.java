@@ -0,0 +1,20 @@
+package service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class DownloadToken {
+    private final UUID fileId;
+    private final long nonce;
+    private final int maxUses;
+    private final long expiresAt;
+
+    public boolean isLimited() {
+        return maxUses > 0;
+    }
+}
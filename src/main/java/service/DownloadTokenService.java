@@ -0,0 +1,251 @@
+package service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Slf4j
+public class DownloadTokenService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = 36;
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int TOKEN_LENGTH = base64Length(PAYLOAD_LENGTH) + base64Length(SIGNATURE_LENGTH);
+    private static final int[] BASE64_URL_DECODE = createDecodeTable();
+
+    private final SecretKeySpec key;
+    private final Duration linkTtl;
+    private final int maxUses;
+    private final TokenUsageStore usageStore;
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final BlockingQueue<Signer> signers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 4);
+
+    public DownloadTokenService(String secret, Duration linkTtl, int maxUses, TokenUsageStore usageStore) {
+        this.key = new SecretKeySpec(resolveSecret(secret), HMAC_ALGORITHM);
+        this.linkTtl = linkTtl;
+        this.maxUses = maxUses;
+        this.usageStore = usageStore;
+        releaseSigner(acquireSigner());
+    }
+
+    public String issue(UUID fileId) {
+        long expiresAt = System.currentTimeMillis() + linkTtl.toMillis();
+
+        Signer signer = acquireSigner();
+        try {
+            return issue(signer, fileId, expiresAt);
+        } finally {
+            releaseSigner(signer);
+        }
+    }
+
+    public List<String> issueAll(List<UUID> fileIds) {
+        long expiresAt = System.currentTimeMillis() + linkTtl.toMillis();
+        List<String> tokens = new ArrayList<>(fileIds.size());
+
+        Signer signer = acquireSigner();
+        try {
+            for (UUID fileId : fileIds) {
+                tokens.add(issue(signer, fileId, expiresAt));
+            }
+        } finally {
+            releaseSigner(signer);
+        }
+        return tokens;
+    }
+
+    private String issue(Signer signer, UUID fileId, long expiresAt) {
+        byte[] token = new byte[PAYLOAD_LENGTH + SIGNATURE_LENGTH];
+        putLong(token, 0, fileId.getMostSignificantBits());
+        putLong(token, 8, fileId.getLeastSignificantBits());
+        putLong(token, 16, expiresAt);
+        putInt(token, 24, maxUses);
+        putLong(token, 28, random.nextLong());
+        signer.sign(token, PAYLOAD_LENGTH, PAYLOAD_LENGTH);
+
+        return encoder.encodeToString(Arrays.copyOf(token, PAYLOAD_LENGTH)) +
+                encoder.encodeToString(Arrays.copyOfRange(token, PAYLOAD_LENGTH, token.length));
+    }
+
+    /**
+     * Checks signature and expiry only. Limited-use tokens are charged separately through
+     * {@link #consumeUse}, once the caller knows it is about to send the full content, so range
+     * resumes and conditional revalidations do not use up the link.
+     */
+    public DownloadToken verify(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Malformed download token");
+        }
+
+        Signer signer = acquireSigner();
+        try {
+            byte[] scratch = signer.scratch;
+            int payloadChars = base64Length(PAYLOAD_LENGTH);
+            if (!decode(token, 0, payloadChars, scratch, 0)
+                    || !decode(token, payloadChars, TOKEN_LENGTH, scratch, PAYLOAD_LENGTH)) {
+                throw new IllegalArgumentException("Malformed download token");
+            }
+
+            signer.sign(scratch, PAYLOAD_LENGTH + SIGNATURE_LENGTH, PAYLOAD_LENGTH);
+            if (!constantTimeEquals(scratch, PAYLOAD_LENGTH, PAYLOAD_LENGTH + SIGNATURE_LENGTH, SIGNATURE_LENGTH)) {
+                throw new IllegalArgumentException("Invalid download token signature");
+            }
+
+            long expiresAt = getLong(scratch, 16);
+            if (expiresAt < System.currentTimeMillis()) {
+                throw new IllegalArgumentException("Download token expired");
+            }
+
+            return new DownloadToken(new UUID(getLong(scratch, 0), getLong(scratch, 8)),
+                    getLong(scratch, 28), getInt(scratch, 24), expiresAt);
+        } finally {
+            releaseSigner(signer);
+        }
+    }
+
+    public void consumeUse(DownloadToken token) {
+        if (!token.isLimited()) {
+            return;
+        }
+        if (usageStore == null) {
+            log.warn("Limited-use download token presented but no usage store is configured");
+            throw new IllegalArgumentException("Download token already used");
+        }
+        if (!usageStore.tryConsume(token.getNonce(), token.getMaxUses(), token.getExpiresAt())) {
+            throw new IllegalArgumentException("Download token already used");
+        }
+    }
+
+    private Signer acquireSigner() {
+        Signer signer = signers.poll();
+        return signer != null ? signer : new Signer(createMac());
+    }
+
+    private void releaseSigner(Signer signer) {
+        signers.offer(signer);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC is not available", e);
+        }
+    }
+
+    private static byte[] resolveSecret(String secret) {
+        if (secret != null && !secret.isEmpty()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("No download token secret configured, links will not survive a restart " +
+                "and cannot be shared between nodes");
+        byte[] generated = new byte[32];
+        new SecureRandom().nextBytes(generated);
+        return generated;
+    }
+
+    private static boolean constantTimeEquals(byte[] buffer, int offsetA, int offsetB, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= buffer[offsetA + i] ^ buffer[offsetB + i];
+        }
+        return diff == 0;
+    }
+
+    private static boolean decode(String source, int from, int to, byte[] target, int targetOffset) {
+        int bits = 0;
+        int bitCount = 0;
+        int position = targetOffset;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_URL_DECODE[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[position++] = (byte) (bits >> bitCount);
+            }
+        }
+        return true;
+    }
+
+    private static int base64Length(int bytes) {
+        return (bytes * 8 + 5) / 6;
+    }
+
+    private static int[] createDecodeTable() {
+        int[] table = new int[128];
+        Arrays.fill(table, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            table[alphabet.charAt(i)] = i;
+        }
+        return table;
+    }
+
+    private static class Signer {
+        private final Mac mac;
+        private final byte[] scratch = new byte[PAYLOAD_LENGTH + 2 * SIGNATURE_LENGTH];
+
+        private Signer(Mac mac) {
+            this.mac = mac;
+        }
+
+        private void sign(byte[] buffer, int signatureOffset, int payloadLength) {
+            mac.update(buffer, 0, payloadLength);
+            try {
+                mac.doFinal(buffer, signatureOffset);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not sign download token", e);
+            }
+        }
+    }
+
+    private static void putLong(byte[] buffer, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            buffer[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        for (int i = 3; i >= 0; i--) {
+            buffer[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] buffer, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int getInt(byte[] buffer, int offset) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -1,64 +1,250 @@
 package service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import model.entity.FileMetadata;
 import repository.FileMetadataRepository;
+import repository.FileMetadataRepository.BlobRelease;
+import repository.FileMetadataRepository.DeletedFiles;
+import repository.StoredBlobRepository;
+import service.abstracts.BlobStore;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
-@RequiredArgsConstructor
 public class FileCleanupService {
+    private static final String CHECKPOINT_FILE = ".cleanup-checkpoint";
 
-    private final Path uploadPath;
+    private final BlobStore blobStore;
     private final FileMetadataRepository fileMetadataRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration timeBudget;
+    private final long permitIntervalNanos;
+    private final Path checkpointPath;
+    private final AtomicLong nextPermitNanos = new AtomicLong();
 
-    public void cleanupOldFiles() {
+    public FileCleanupService(Path uploadPath, BlobStore blobStore, FileMetadataRepository fileMetadataRepository,
+                              StoredBlobRepository storedBlobRepository, int retentionDays, int batchSize,
+                              int parallelism, Duration timeBudget, int maxDeletesPerSecond) {
+        this.blobStore = blobStore;
+        this.fileMetadataRepository = fileMetadataRepository;
+        this.storedBlobRepository = storedBlobRepository;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.timeBudget = timeBudget;
+        this.permitIntervalNanos = maxDeletesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxDeletesPerSecond : 0;
+        this.checkpointPath = uploadPath.resolve(CHECKPOINT_FILE);
+    }
+
+    public synchronized void cleanupOldFiles() {
         log.info("Starting cleanup of old files...");
 
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        LocalDateTime threshold = LocalDateTime.now().minusDays(retentionDays);
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "file-cleanup-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        nextPermitNanos.set(System.nanoTime());
+
+        int scannedCount = 0;
+        int deletedCount = 0;
         try {
-            List<FileMetadata> oldFiles = fileMetadataRepository.findFilesNotDownloadedForDays(30);
+            purgeUnreferencedBlobs();
+
+            Checkpoint checkpoint = readCheckpoint();
+            if (checkpoint != null) {
+                log.info("Resuming cleanup after {} ({})", checkpoint.lastActivityDate, checkpoint.id);
+            }
+
+            while (true) {
+                List<FileMetadata> chunk = fileMetadataRepository.findStaleFiles(threshold,
+                        checkpoint == null ? null : checkpoint.lastActivityDate,
+                        checkpoint == null ? null : checkpoint.id, batchSize);
+                if (chunk.isEmpty()) {
+                    clearCheckpoint();
+                    break;
+                }
+
+                scannedCount += chunk.size();
+                deletedCount += deleteChunk(chunk, executor);
 
-            log.info("Found {} files for cleanup", oldFiles.size());
+                FileMetadata last = chunk.get(chunk.size() - 1);
+                checkpoint = new Checkpoint(last.getLastActivityDate(), last.getId());
+                if (chunk.size() < batchSize) {
+                    clearCheckpoint();
+                    break;
+                }
+                writeCheckpoint(checkpoint);
 
-            int deletedCount = 0;
-            for (FileMetadata fileMetadata : oldFiles) {
-                if (deleteFile(fileMetadata)) {
-                    deletedCount++;
+                if (System.nanoTime() - deadline > 0) {
+                    log.warn("Cleanup time budget of {} exhausted, will resume from checkpoint on the next run",
+                            timeBudget);
+                    break;
                 }
             }
 
-            log.info("Cleanup completed: {} files deleted", deletedCount);
+            log.info("Cleanup completed: {} of {} files deleted", deletedCount, scannedCount);
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Cleanup interrupted after deleting {} files", deletedCount);
         } catch (Exception e) {
             log.error("Error during file cleanup", e);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private boolean deleteFile(FileMetadata fileMetadata) {
+    private int deleteChunk(List<FileMetadata> chunk, ExecutorService executor) throws InterruptedException {
+        List<UUID> ids = new ArrayList<>(chunk.size());
+        for (FileMetadata fileMetadata : chunk) {
+            ids.add(fileMetadata.getId());
+        }
+
+        DeletedFiles deletedFiles;
         try {
-            Path filePath = uploadPath.resolve(fileMetadata.getStoredFileName());
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                log.debug("Physical file deleted: {}", filePath);
+            deletedFiles = fileMetadataRepository.deleteAllAndRelease(ids);
+        } catch (Exception e) {
+            log.error("Failed to delete chunk of {} stale files", chunk.size(), e);
+            return 0;
+        }
+
+        List<String> storedFileNames = new ArrayList<>();
+        List<Future<?>> results = new ArrayList<>();
+        for (Map.Entry<String, BlobRelease> release : deletedFiles.getReleases().entrySet()) {
+            if (release.getValue() != BlobRelease.SHARED) {
+                storedFileNames.add(release.getKey());
+                results.add(executor.submit(() -> {
+                    deleteReleasedFile(release.getKey(), release.getValue());
+                    return null;
+                }));
+            }
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            } catch (ExecutionException e) {
+                log.error("Failed to delete physical file: {}", storedFileNames.get(i), e.getCause());
+            }
+        }
+
+        log.info("Deleted {} of {} stale files in chunk, {} stored files released",
+                deletedFiles.getDeletedCount(), chunk.size(), results.size());
+        return deletedFiles.getDeletedCount();
+    }
+
+    private void deleteReleasedFile(String storedFileName, BlobRelease release)
+            throws IOException, InterruptedException {
+        acquirePermit();
+        if (release == BlobRelease.LAST_REFERENCE) {
+            storedBlobRepository.purge(storedFileName, this::deleteSharedBlob);
+        } else {
+            deletePhysicalFile(storedFileName);
+        }
+    }
+
+    /**
+     * Deletes blobs whose last reference was dropped by an earlier run that failed or stopped before
+     * the physical file was gone.
+     */
+    private void purgeUnreferencedBlobs() throws InterruptedException {
+        List<String> digests = storedBlobRepository.findUnreferenced(batchSize);
+        int purged = 0;
+        for (String digest : digests) {
+            acquirePermit();
+            try {
+                if (storedBlobRepository.purge(digest, this::deleteSharedBlob)) {
+                    purged++;
+                }
+            } catch (Exception e) {
+                log.error("Failed to purge blob: {}", digest, e);
             }
+        }
+        if (!digests.isEmpty()) {
+            log.info("Purged {} of {} unreferenced blobs left by earlier runs", purged, digests.size());
+        }
+    }
 
-            fileMetadataRepository.delete(fileMetadata.getId());
-            log.info("File metadata deleted from database: {} (ID: {})",
-                    fileMetadata.getOriginalFileName(), fileMetadata.getId());
+    private void acquirePermit() throws InterruptedException {
+        if (permitIntervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long slot = nextPermitNanos.getAndUpdate(next -> Math.max(next, now) + permitIntervalNanos);
+        long waitNanos = slot - now;
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
 
-            return true;
+    private void deletePhysicalFile(String storedFileName) throws IOException {
+        blobStore.delete(storedFileName);
+    }
 
+    private void deleteSharedBlob(String digest) {
+        try {
+            deletePhysicalFile(digest);
         } catch (IOException e) {
-            log.error("Failed to delete physical file: {}", fileMetadata.getStoredFileName(), e);
-            return false;
-        } catch (Exception e) {
-            log.error("Failed to delete file metadata: {}", fileMetadata.getId(), e);
-            return false;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Checkpoint readCheckpoint() {
+        try {
+            if (!Files.exists(checkpointPath)) {
+                return null;
+            }
+            String[] parts = Files.readString(checkpointPath, StandardCharsets.UTF_8).trim().split("\\|");
+            return new Checkpoint(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable cleanup checkpoint: {}", checkpointPath, e);
+            return null;
+        }
+    }
+
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        Path tempFile = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tempFile, checkpoint.lastActivityDate + "|" + checkpoint.id, StandardCharsets.UTF_8);
+        Files.move(tempFile, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void clearCheckpoint() throws IOException {
+        Files.deleteIfExists(checkpointPath);
+    }
+
+    private static class Checkpoint {
+        private final LocalDateTime lastActivityDate;
+        private final UUID id;
+
+        private Checkpoint(LocalDateTime lastActivityDate, UUID id) {
+            this.lastActivityDate = lastActivityDate;
+            this.id = id;
         }
     }
 }
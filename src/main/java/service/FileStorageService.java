@@ -1,36 +1,77 @@
 package service;
 
+import config.web.StorageMode;
 import lombok.extern.slf4j.Slf4j;
+import model.dto.BatchItemResult;
+import model.dto.BatchItemStatus;
 import model.dto.FileDownloadResponse;
+import model.dto.FileListQuery;
 import model.dto.FileResponse;
 import model.entity.FileMetadata;
+import org.apache.commons.io.input.BoundedInputStream;
 import repository.FileMetadataRepository;
+import repository.StoredBlobRepository;
+import service.abstracts.BlobStore;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
 public class FileStorageService {
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final String INCOMING_DIRECTORY = ".incoming";
+
     private final FileMetadataRepository fileMetadataRepository;
-    private final Path uploadPath;
+    private final BlobStore blobStore;
     private final String downloadBaseUrl;
-    private final Map<String, UUID> temporaryLinks = new ConcurrentHashMap<>();
+    private final DownloadTokenService downloadTokenService;
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageMode storageMode;
+    private final DownloadCountAggregator downloadCountAggregator;
+    private final CompressionPolicy compressionPolicy;
+    private final CompressedVariantCache compressedVariantCache;
+    private final HotContentCache hotContentCache;
+    private final Path incomingPath;
 
-    public FileStorageService(Path uploadPath, String downloadBaseUrl, FileMetadataRepository fileMetadataRepository) {
+    public FileStorageService(Path uploadPath, BlobStore blobStore, String downloadBaseUrl,
+                              FileMetadataRepository fileMetadataRepository,
+                              DownloadTokenService downloadTokenService, StoredBlobRepository storedBlobRepository,
+                              StorageMode storageMode, DownloadCountAggregator downloadCountAggregator,
+                              CompressionPolicy compressionPolicy, CompressedVariantCache compressedVariantCache,
+                              HotContentCache hotContentCache) {
         this.fileMetadataRepository = fileMetadataRepository;
-        this.uploadPath = uploadPath;
+        this.blobStore = blobStore;
         this.downloadBaseUrl = downloadBaseUrl;
+        this.downloadTokenService = downloadTokenService;
+        this.storedBlobRepository = storedBlobRepository;
+        this.storageMode = storageMode;
+        this.downloadCountAggregator = downloadCountAggregator;
+        this.compressionPolicy = compressionPolicy;
+        this.compressedVariantCache = compressedVariantCache;
+        this.hotContentCache = hotContentCache;
+        this.incomingPath = uploadPath.resolve(INCOMING_DIRECTORY);
 
         try {
-            Files.createDirectories(uploadPath);
+            Files.createDirectories(incomingPath);
             log.info("Upload directory created: {}", uploadPath.toAbsolutePath());
         } catch (IOException e) {
             log.error("Could not create upload directory: {}", uploadPath, e);
@@ -48,38 +89,150 @@ public class FileStorageService {
             throw new IllegalArgumentException("File is empty");
         }
 
+        StreamingUpload upload = openUpload(fileName, contentType);
         try {
-            String storedFileName = UUID.randomUUID().toString();
-            Path targetLocation = uploadPath.resolve(storedFileName);
-            Files.copy(fileStream, targetLocation);
+            byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+            int read;
+            while ((read = fileStream.read(buffer)) != -1) {
+                upload.write(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            upload.abort();
+            log.error("Failed to store file: {}", fileName, ex);
+            throw new RuntimeException("Could not store file", ex);
+        }
 
-            log.debug("File saved to: {}", targetLocation);
+        return completeUpload(upload);
+    }
 
-            FileMetadata fileMetadata = FileMetadata.builder()
-                    .originalFileName(fileName)
-                    .storedFileName(storedFileName)
-                    .fileSize(fileSize)
-                    .contentType(contentType)
-                    .build();
+    public StreamingUpload openUpload(String fileName, String contentType) {
+        String storedFileName = UUID.randomUUID().toString();
+        try {
+            return new StreamingUpload(fileName, contentType, storedFileName, incomingPath.resolve(storedFileName),
+                    sniffedContentType -> selectStorageCoding(contentType, sniffedContentType));
+        } catch (IOException ex) {
+            log.error("Failed to create file for upload: {}", fileName, ex);
+            throw new RuntimeException("Could not store file", ex);
+        }
+    }
 
-            FileMetadata savedFile = fileMetadataRepository.save(fileMetadata);
-            log.info("File uploaded successfully: {} -> {}", fileName, savedFile.getId());
+    public FileResponse completeUpload(StreamingUpload upload) {
+        try {
+            upload.close();
+        } catch (IOException ex) {
+            upload.abort();
+            log.error("Failed to store file: {}", upload.getOriginalFileName(), ex);
+            throw new RuntimeException("Could not store file", ex);
+        }
 
+        if (upload.getSize() == 0) {
+            upload.abort();
+            log.warn("Attempt to upload empty file: {}", upload.getOriginalFileName());
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        log.debug("File saved to: {}", upload.getTargetPath());
+
+        return storeStagedFile(StagedFile.builder()
+                .storedFileName(upload.getStoredFileName())
+                .path(upload.getTargetPath())
+                .originalFileName(upload.getOriginalFileName())
+                .contentType(resolveContentType(upload.getDeclaredContentType(), upload.getSniffedContentType()))
+                .size(upload.getSize())
+                .checksum(upload.getChecksum())
+                .crc32(upload.getCrc32())
+                .storageCoding(upload.getStorageCoding())
+                .storedSize(upload.getStoredSize())
+                .build());
+    }
+
+    FileResponse storeStagedFile(StagedFile stagedFile) {
+        String storedFileName = storageMode == StorageMode.CONTENT_ADDRESSED
+                ? storeContentAddressed(stagedFile)
+                : storeUnique(stagedFile);
+
+        FileMetadata fileMetadata = FileMetadata.builder()
+                .originalFileName(stagedFile.getOriginalFileName())
+                .storedFileName(storedFileName)
+                .fileSize(stagedFile.getSize())
+                .contentType(stagedFile.getContentType())
+                .checksum(stagedFile.getChecksum())
+                .contentCrc32(stagedFile.getCrc32())
+                .storageCoding(stagedFile.getStorageCoding() != null ? stagedFile.getStorageCoding().getToken() : null)
+                .storedSize(stagedFile.getStoredSize())
+                .build();
+
+        try {
+            FileMetadata savedFile = fileMetadataRepository.save(fileMetadata);
+            log.info("File uploaded successfully: {} -> {}", stagedFile.getOriginalFileName(), savedFile.getId());
             return toFileResponse(savedFile);
+        } catch (RuntimeException ex) {
+            if (storageMode == StorageMode.CONTENT_ADDRESSED) {
+                storedBlobRepository.release(storedFileName, this::deleteBlob);
+            } else {
+                try {
+                    deleteBlob(storedFileName);
+                } catch (UncheckedIOException cleanupEx) {
+                    ex.addSuppressed(cleanupEx);
+                }
+            }
+            throw ex;
+        }
+    }
 
+    private String storeUnique(StagedFile stagedFile) {
+        try {
+            blobStore.put(stagedFile.getStoredFileName(), stagedFile.getPath());
+            return stagedFile.getStoredFileName();
         } catch (IOException ex) {
-            log.error("Failed to store file: {}", fileName, ex);
+            stagedFile.discard();
+            log.error("Failed to store file: {}", stagedFile.getOriginalFileName(), ex);
             throw new RuntimeException("Could not store file", ex);
         }
     }
 
-    public List<FileResponse> getFiles() {
-        log.debug("Retrieving all files metadata");
-        List<FileResponse> files = fileMetadataRepository.findAll().stream()
-                .map(this::toFileResponse)
-                .collect(Collectors.toList());
-        log.debug("Retrieved {} files", files.size());
-        return files;
+    private String storeContentAddressed(StagedFile stagedFile) {
+        String digest = stagedFile.getStorageCoding() != null
+                ? stagedFile.getChecksum() + stagedFile.getStorageCoding().getFileExtension()
+                : stagedFile.getChecksum();
+        try {
+            long references = storedBlobRepository.acquire(digest, stagedFile.getStoredSize());
+            if (blobStore.stat(digest).isPresent()) {
+                Files.delete(stagedFile.getPath());
+                log.debug("Deduplicated upload {} against blob {} ({} references)",
+                        stagedFile.getOriginalFileName(), digest, references);
+            } else {
+                blobStore.put(digest, stagedFile.getPath());
+                log.debug("Stored new blob: {}", digest);
+            }
+            return digest;
+        } catch (IOException ex) {
+            stagedFile.discard();
+            storedBlobRepository.release(digest, this::deleteBlob);
+            log.error("Failed to store blob {} for file: {}", digest, stagedFile.getOriginalFileName(), ex);
+            throw new RuntimeException("Could not store file", ex);
+        } catch (RuntimeException ex) {
+            stagedFile.discard();
+            throw ex;
+        }
+    }
+
+    private void deleteBlob(String key) {
+        try {
+            blobStore.delete(key);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public String streamFiles(FileListQuery query, Consumer<FileResponse> consumer) {
+        log.debug("Streaming files metadata page of {}", query.getLimit());
+
+        PageCollector collector = new PageCollector(query.getLimit(), consumer);
+        fileMetadataRepository.scrollFiles(query, query.getLimit() + 1, collector);
+
+        log.debug("Streamed {} files", collector.emitted);
+        return collector.hasMore ? encodeCursor(collector.last) : null;
     }
 
     public String generateTemporaryDownloadUrl(UUID fileId) {
@@ -91,48 +244,262 @@ public class FileStorageService {
                     return new RuntimeException("Could not find file id: " + fileId);
                 });
 
-        UUID token = UUID.randomUUID();
-        temporaryLinks.put(token.toString(), fileId);
-
+        String token = downloadTokenService.issue(fileId);
         String url = downloadBaseUrl + "/" + token;
 
         log.info("Temporary download URL generated: {} for file: {}", url, fileId);
         return url;
     }
 
-    public FileDownloadResponse downloadFile(UUID temporaryLinkId) {
-        log.debug("Processing file download with temporary link: {}", temporaryLinkId);
+    public List<BatchItemResult> generateTemporaryDownloadUrls(List<String> ids) {
+        log.debug("Generating temporary download URLs for {} files", ids.size());
+
+        List<UUID> fileIds = parseIds(ids);
+        Map<UUID, FileMetadata> files = findAllByIds(fileIds);
+
+        List<UUID> issued = new ArrayList<>(fileIds.size());
+        for (UUID fileId : fileIds) {
+            if (files.containsKey(fileId)) {
+                issued.add(fileId);
+            }
+        }
+        List<String> tokens = downloadTokenService.issueAll(issued);
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        int nextToken = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            BatchItemResult result = batchResult(ids.get(i), fileIds.get(i), files.containsKey(fileIds.get(i)));
+            if (result.getStatus() == BatchItemStatus.OK) {
+                result.setUrl(downloadBaseUrl + "/" + tokens.get(nextToken++));
+            }
+            results.add(result);
+        }
+
+        log.info("Temporary download URLs generated for {} of {} files", issued.size(), ids.size());
+        return results;
+    }
+
+    public List<BatchItemResult> findFiles(List<String> ids) {
+        log.debug("Finding metadata for {} files", ids.size());
+
+        List<UUID> fileIds = parseIds(ids);
+        Map<UUID, FileMetadata> files = findAllByIds(fileIds);
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            FileMetadata metadata = files.get(fileIds.get(i));
+            BatchItemResult result = batchResult(ids.get(i), fileIds.get(i), metadata != null);
+            if (metadata != null) {
+                result.setFile(toFileResponse(metadata));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    public List<BatchItemResult> incrementDownloadCounts(List<String> ids) {
+        log.debug("Incrementing download counts for {} files", ids.size());
+
+        List<UUID> fileIds = parseIds(ids);
+        Map<UUID, FileMetadata> files = findAllByIds(fileIds);
+        Map<UUID, Long> counts = new LinkedHashMap<>();
+        for (UUID fileId : fileIds) {
+            if (files.containsKey(fileId)) {
+                counts.merge(fileId, 1L, Long::sum);
+            }
+        }
+        counts.forEach(downloadCountAggregator::record);
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            results.add(batchResult(ids.get(i), fileIds.get(i), files.containsKey(fileIds.get(i))));
+        }
+
+        log.debug("Download counts recorded for {} files", counts.size());
+        return results;
+    }
+
+    public List<FileDownloadResponse> prepareDownloads(List<String> ids) {
+        log.debug("Preparing {} files for download", ids.size());
+
+        List<UUID> fileIds = parseIds(ids);
+        Map<UUID, FileMetadata> files = findAllByIds(fileIds);
+
+        List<FileDownloadResponse> downloads = new ArrayList<>(ids.size());
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            UUID fileId = fileIds.get(i);
+            if (fileId == null) {
+                throw new IllegalArgumentException("Invalid file id: " + ids.get(i));
+            }
+            FileMetadata metadata = files.get(fileId);
+            if (metadata == null) {
+                throw new IllegalArgumentException("Could not find file id: " + fileId);
+            }
+            if (seen.add(fileId)) {
+                downloads.add(toFileDownloadResponse(metadata, null, null));
+            }
+        }
+        return downloads;
+    }
+
+    private List<UUID> parseIds(List<String> ids) {
+        List<UUID> fileIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            UUID fileId = null;
+            if (id != null) {
+                try {
+                    fileId = UUID.fromString(id);
+                } catch (IllegalArgumentException e) {
+                    log.debug("Invalid file id in batch: {}", id);
+                }
+            }
+            fileIds.add(fileId);
+        }
+        return fileIds;
+    }
+
+    private Map<UUID, FileMetadata> findAllByIds(List<UUID> fileIds) {
+        Set<UUID> distinct = new LinkedHashSet<>(fileIds);
+        distinct.remove(null);
+
+        Map<UUID, FileMetadata> files = new HashMap<>();
+        for (FileMetadata metadata : fileMetadataRepository.findAllByIds(distinct)) {
+            files.put(metadata.getId(), metadata);
+        }
+        return files;
+    }
+
+    private BatchItemResult batchResult(String id, UUID fileId, boolean found) {
+        BatchItemStatus status = fileId == null ? BatchItemStatus.INVALID_ID
+                : found ? BatchItemStatus.OK
+                : BatchItemStatus.NOT_FOUND;
+        return BatchItemResult.builder()
+                .id(id)
+                .status(status)
+                .build();
+    }
 
-        UUID fileId = Optional.ofNullable(temporaryLinks.get(temporaryLinkId.toString()))
-                .orElseThrow(() -> new IllegalArgumentException("Bad temporary link id: " + temporaryLinkId));
+    public FileDownloadResponse downloadFile(String temporaryLinkToken) {
+        log.debug("Processing file download with temporary link token");
+
+        DownloadToken downloadToken = downloadTokenService.verify(temporaryLinkToken);
+        UUID fileId = downloadToken.getFileId();
 
         FileMetadata fileMetadata = fileMetadataRepository.findById(fileId)
                 .orElseThrow(() -> {
-                    log.error("File not found for temporary link: {}", temporaryLinkId);
+                    log.error("File not found for temporary link, file id: {}", fileId);
                     return new RuntimeException("Could not find file");
                 });
 
-        Path filePath = getFilePath(fileMetadata);
+        ByteBuffer content = findHotContent(fileMetadata);
+        Path filePath = content == null ? blobStore.getLocalPath(fileMetadata.getStoredFileName()).orElse(null) : null;
+
+        log.info("File download prepared: {} (ID: {})",
+                fileMetadata.getOriginalFileName(), fileId);
+
+        FileDownloadResponse downloadResponse = toFileDownloadResponse(fileMetadata, filePath, content);
+        downloadResponse.setDownloadToken(downloadToken);
+        return downloadResponse;
+    }
+
+    public void consumeDownloadUse(FileDownloadResponse downloadResponse) {
+        if (downloadResponse.getDownloadToken() != null) {
+            downloadTokenService.consumeUse(downloadResponse.getDownloadToken());
+        }
+    }
 
-        if (!Files.exists(filePath)) {
-            log.error("File not found on disk: {}", filePath);
-            throw new RuntimeException("Could not find file " + filePath);
+    private ByteBuffer findHotContent(FileMetadata fileMetadata) {
+        if (hotContentCache == null) {
+            return null;
+        }
+        String storageKey = fileMetadata.getStoredFileName();
+        long storedSize = getStoredSize(fileMetadata);
+        try {
+            return hotContentCache.get(storageKey, storedSize, () -> blobStore.get(storageKey, 0, storedSize));
+        } catch (IOException e) {
+            log.warn("Could not cache content of {}, serving from storage", storageKey, e);
+            return null;
         }
+    }
 
-        log.info("File download prepared: {} via link: {}",
-                fileMetadata.getOriginalFileName(), temporaryLinkId);
+    public InputStream openContent(FileDownloadResponse downloadResponse, long position, long count)
+            throws IOException {
+        ContentCoding storageCoding = downloadResponse.getStorageCoding();
+        if (storageCoding == null) {
+            return downloadResponse.getContent() != null
+                    ? new ByteBufferInputStream(downloadResponse.getContent().slice((int) position, (int) count))
+                    : blobStore.get(downloadResponse.getStorageKey(), position, count);
+        }
 
-        return toFileDownloadResponse(fileMetadata, filePath);
+        InputStream decoded = storageCoding.decode(openStoredContent(downloadResponse));
+        try {
+            decoded.skipNBytes(position);
+        } catch (IOException | RuntimeException e) {
+            decoded.close();
+            throw e;
+        }
+        return new BoundedInputStream(decoded, count);
+    }
+
+    public InputStream openStoredContent(FileDownloadResponse downloadResponse) throws IOException {
+        if (downloadResponse.getContent() != null) {
+            return new ByteBufferInputStream(downloadResponse.getContent().duplicate());
+        }
+        return blobStore.get(downloadResponse.getStorageKey(), 0, downloadResponse.getStoredSize());
+    }
+
+    public HotContentCache getHotContentCache() {
+        return hotContentCache;
+    }
+
+    public Path findCompressedVariant(FileDownloadResponse downloadResponse, ContentCoding coding) {
+        if (compressedVariantCache == null) {
+            return null;
+        }
+        long size = downloadResponse.getFileSize();
+        return compressedVariantCache.getVariant(downloadResponse.getStorageKey(), coding, size,
+                () -> openContent(downloadResponse, 0, size));
     }
 
     public void incrementDownloadCount(UUID fileId) {
         log.debug("Incrementing download count for file: {}", fileId);
-        fileMetadataRepository.incrementDownloadCount(fileId);
-        log.debug("Download count incremented for file: {}", fileId);
+        downloadCountAggregator.record(fileId);
+        log.debug("Download count recorded for file: {}", fileId);
     }
 
-    private Path getFilePath(FileMetadata fileMetadata) {
-        return uploadPath.resolve(fileMetadata.getStoredFileName()).normalize();
+    public void applyCursor(FileListQuery query, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            query.setCursorUploadDate(LocalDateTime.parse(decoded.substring(0, separator)));
+            query.setCursorId(UUID.fromString(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private String encodeCursor(FileMetadata metadata) {
+        String cursor = metadata.getUploadDate() + "|" + metadata.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    String resolveContentType(String declared, String sniffed) {
+        if (declared != null && !declared.isEmpty() && !DEFAULT_CONTENT_TYPE.equals(declared)) {
+            return declared;
+        }
+        return sniffed != null ? sniffed : DEFAULT_CONTENT_TYPE;
+    }
+
+    ContentCoding selectStorageCoding(String declaredContentType, String sniffedContentType) {
+        return compressionPolicy.selectStorageCoding(resolveContentType(declaredContentType, sniffedContentType));
+    }
+
+    Path getIncomingPath() {
+        return incomingPath;
     }
 
     private FileResponse toFileResponse(FileMetadata metadata) {
@@ -145,12 +512,57 @@ public class FileStorageService {
                 .build();
     }
 
-    private FileDownloadResponse toFileDownloadResponse(FileMetadata metadata, Path filePath) {
+    private FileDownloadResponse toFileDownloadResponse(FileMetadata metadata, Path filePath, ByteBuffer content) {
         return FileDownloadResponse.builder()
                 .filePath(filePath)
+                .content(content)
+                .storageKey(metadata.getStoredFileName())
                 .originalFileName(metadata.getOriginalFileName())
                 .contentType(metadata.getContentType())
                 .fileSize(metadata.getFileSize())
+                .contentCrc32(metadata.getContentCrc32())
+                .entityTag(toEntityTag(metadata))
+                .lastModified(metadata.getUploadDate().atZone(ZoneId.systemDefault()).toInstant())
+                .compressible(compressionPolicy.isCompressible(metadata.getContentType(), metadata.getFileSize()))
+                .storageCoding(ContentCoding.fromToken(metadata.getStorageCoding()))
+                .storedSize(getStoredSize(metadata))
                 .build();
     }
+
+    private long getStoredSize(FileMetadata metadata) {
+        return metadata.getStoredSize() != null ? metadata.getStoredSize() : metadata.getFileSize();
+    }
+
+    private String toEntityTag(FileMetadata metadata) {
+        if (metadata.getChecksum() != null) {
+            return "\"" + metadata.getChecksum() + "\"";
+        }
+        long uploadMillis = metadata.getUploadDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return "\"" + metadata.getId() + "-" + Long.toHexString(metadata.getFileSize()) + "-" +
+                Long.toHexString(uploadMillis) + "\"";
+    }
+
+    private class PageCollector implements Consumer<FileMetadata> {
+        private final int limit;
+        private final Consumer<FileResponse> consumer;
+        private int emitted;
+        private boolean hasMore;
+        private FileMetadata last;
+
+        private PageCollector(int limit, Consumer<FileResponse> consumer) {
+            this.limit = limit;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(FileMetadata metadata) {
+            if (emitted == limit) {
+                hasMore = true;
+                return;
+            }
+            consumer.accept(toFileResponse(metadata));
+            last = metadata;
+            emitted++;
+        }
+    }
 }
\ No newline at end of file
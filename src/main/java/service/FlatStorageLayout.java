@@ -0,0 +1,18 @@
+package service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import service.abstracts.StorageLayout;
+
+import java.nio.file.Path;
+
+@RequiredArgsConstructor
+public class FlatStorageLayout implements StorageLayout {
+    @Getter
+    private final Path root;
+
+    @Override
+    public Path resolve(String storedFileName) {
+        return root.resolve(storedFileName).normalize();
+    }
+}
@@ -0,0 +1,97 @@
+package service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import service.abstracts.ContentSource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class HotContentCache {
+    private static final int MAX_TRACKED_KEYS = 100_000;
+    private static final Duration HIT_WINDOW = Duration.ofMinutes(10);
+
+    private final long maxEntrySize;
+    private final int hotThreshold;
+    private final Cache<String, AtomicInteger> hits;
+    private final Cache<String, ByteBuffer> cache;
+
+    public HotContentCache(long maxSizeBytes, long maxEntrySize, int hotThreshold) {
+        this.maxEntrySize = Math.min(maxEntrySize, Integer.MAX_VALUE);
+        this.hotThreshold = hotThreshold;
+        this.hits = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterAccess(HIT_WINDOW)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((String key, ByteBuffer content) -> content.capacity())
+                .recordStats()
+                .build();
+        log.info("Hot content cache enabled: {} bytes off-heap, files up to {} bytes, hot after {} requests",
+                maxSizeBytes, maxEntrySize, hotThreshold);
+    }
+
+    /**
+     * Returns a read-only view of the stored bytes of {@code storageKey}, or {@code null} when the caller
+     * should read from storage. Content is loaded into a direct buffer only once it has been requested
+     * {@code hotThreshold} times, so one-off downloads never allocate or read the whole file up front.
+     */
+    public ByteBuffer get(String storageKey, long size, ContentSource source) throws IOException {
+        if (size > maxEntrySize) {
+            return null;
+        }
+        ByteBuffer content = cache.getIfPresent(storageKey);
+        if (content != null) {
+            return content.duplicate();
+        }
+        if (hits.get(storageKey, key -> new AtomicInteger()).incrementAndGet() < hotThreshold) {
+            return null;
+        }
+
+        try {
+            content = cache.get(storageKey, key -> load(key, (int) size, source));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        hits.invalidate(storageKey);
+        return content.duplicate();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getMemoryUsage() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    public long getEntryCount() {
+        return cache.estimatedSize();
+    }
+
+    private ByteBuffer load(String storageKey, int size, ContentSource source) {
+        ByteBuffer content = ByteBuffer.allocateDirect(size);
+        try (ReadableByteChannel channel = Channels.newChannel(source.open())) {
+            while (content.hasRemaining()) {
+                if (channel.read(content) < 0) {
+                    throw new EOFException("Stored content of " + storageKey + " ended after " +
+                            content.position() + " of " + size + " bytes");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Cached hot content {} ({} bytes)", storageKey, size);
+        return content.flip().asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,114 @@
+package service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import model.dto.BlobStat;
+import org.apache.commons.io.input.BoundedInputStream;
+import service.abstracts.BlobStore;
+import service.abstracts.StorageLayout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+@Slf4j
+@RequiredArgsConstructor
+public class LocalBlobStore implements BlobStore {
+    private final StorageLayout storageLayout;
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = storageLayout.resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Stored blob: {}", target);
+    }
+
+    @Override
+    public InputStream get(String key, long position, long count) throws IOException {
+        Path path = storageLayout.locate(key);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            Path moved = relocate(key, path);
+            if (moved == null) {
+                throw e;
+            }
+            channel = FileChannel.open(moved, StandardOpenOption.READ);
+        }
+        channel.position(position);
+        return new BoundedInputStream(Channels.newInputStream(channel), count);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path path = storageLayout.locate(key);
+        if (!Files.deleteIfExists(path)) {
+            path = relocate(key, path);
+            if (path == null || !Files.deleteIfExists(path)) {
+                return;
+            }
+        }
+        log.debug("Physical file deleted: {}", path);
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        Path path = storageLayout.locate(key);
+        try {
+            return Optional.of(stat(key, path));
+        } catch (NoSuchFileException e) {
+            Path moved = relocate(key, path);
+            if (moved == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(stat(key, moved));
+            } catch (NoSuchFileException movedAway) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private BlobStat stat(String key, Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return BlobStat.builder()
+                .key(key)
+                .size(attributes.size())
+                .lastModified(attributes.lastModifiedTime().toInstant())
+                .build();
+    }
+
+    @Override
+    public Optional<Path> getLocalPath(String key) {
+        Path path = storageLayout.locate(key);
+        if (Files.exists(path)) {
+            return Optional.of(path);
+        }
+        return Optional.ofNullable(relocate(key, path)).filter(Files::exists);
+    }
+
+    /**
+     * A layout migration may move the file between {@link StorageLayout#locate} and the file access.
+     * Looking it up again finds it at its new location.
+     *
+     * @return the new location, or {@code null} if the file did not move
+     */
+    private Path relocate(String key, Path previous) {
+        Path current = storageLayout.locate(key);
+        if (current.equals(previous)) {
+            return null;
+        }
+        log.debug("Blob {} moved from {} to {} while being accessed", key, previous, current);
+        return current;
+    }
+}
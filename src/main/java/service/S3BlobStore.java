@@ -0,0 +1,224 @@
+package service;
+
+import lombok.extern.slf4j.Slf4j;
+import model.dto.BlobStat;
+import org.apache.commons.io.input.BoundedInputStream;
+import service.abstracts.BlobStore;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class S3BlobStore implements BlobStore, AutoCloseable {
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String keyPrefix;
+    private final long partSize;
+    private final ExecutorService partUploader;
+
+    public S3BlobStore(S3Client s3Client, String bucket, String keyPrefix, long partSize, int uploadParallelism) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.keyPrefix = keyPrefix == null ? "" : keyPrefix;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.partUploader = Executors.newFixedThreadPool(uploadParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("S3 blob store enabled: bucket {}, prefix '{}', part size {} bytes, {} parallel parts",
+                bucket, this.keyPrefix, this.partSize, uploadParallelism);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size <= partSize) {
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey(key))
+                                .contentType(CONTENT_TYPE)
+                                .build(),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size);
+            }
+        } catch (SdkException e) {
+            throw new IOException("Could not upload blob " + key, e);
+        }
+        Files.deleteIfExists(source);
+        log.debug("Uploaded blob {} ({} bytes) to bucket {}", key, size, bucket);
+    }
+
+    private void putMultipart(String key, Path source, long size) throws IOException {
+        String objectKey = objectKey(key);
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey)
+                        .contentType(CONTENT_TYPE)
+                        .build())
+                .uploadId();
+
+        try {
+            List<Future<CompletedPart>> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                long partOffset = offset;
+                int number = partNumber;
+                parts.add(partUploader.submit(() -> uploadPart(objectKey, uploadId, number, source, partOffset, length)));
+            }
+
+            List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> part : parts) {
+                completedParts.add(part.get());
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipart(objectKey, uploadId);
+            throw new IOException("Interrupted while uploading blob " + key, e);
+        } catch (ExecutionException | RuntimeException e) {
+            abortMultipart(objectKey, uploadId);
+            throw new IOException("Could not upload blob " + key, e instanceof ExecutionException ? e.getCause() : e);
+        }
+    }
+
+    private CompletedPart uploadPart(String objectKey, String uploadId, int partNumber,
+                                     Path source, long offset, long length) {
+        String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength(length)
+                                .build(),
+                        RequestBody.fromContentProvider(() -> openPart(source, offset, length), length, CONTENT_TYPE))
+                .eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private InputStream openPart(Path source, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read part of " + source, e);
+        }
+    }
+
+    private void abortMultipart(String objectKey, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException e) {
+            log.warn("Could not abort multipart upload {} of {}", uploadId, objectKey, e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long position, long count) throws IOException {
+        if (count == 0) {
+            return InputStream.nullInputStream();
+        }
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .range("bytes=" + position + "-" + (position + count - 1))
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException("Could not read blob " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException("Could not delete blob " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<BlobStat> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .build());
+            return Optional.of(BlobStat.builder()
+                    .key(key)
+                    .size(head.contentLength())
+                    .lastModified(head.lastModified())
+                    .build());
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not stat blob " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not stat blob " + key, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        partUploader.shutdownNow();
+        s3Client.close();
+    }
+
+    private String objectKey(String key) {
+        return keyPrefix + key;
+    }
+}
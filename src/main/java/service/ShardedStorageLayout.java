@@ -0,0 +1,42 @@
+package service;
+
+import lombok.Getter;
+import service.abstracts.StorageLayout;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ShardedStorageLayout implements StorageLayout {
+    @Getter
+    private final Path root;
+    private final int depth;
+    private final int width;
+
+    public ShardedStorageLayout(Path root, int depth, int width) {
+        this.root = root;
+        this.depth = depth;
+        this.width = width;
+    }
+
+    @Override
+    public Path resolve(String storedFileName) {
+        if (storedFileName.length() < depth * width) {
+            return root.resolve(storedFileName).normalize();
+        }
+        Path path = root;
+        for (int level = 0; level < depth; level++) {
+            path = path.resolve(storedFileName.substring(level * width, (level + 1) * width));
+        }
+        return path.resolve(storedFileName).normalize();
+    }
+
+    @Override
+    public Path locate(String storedFileName) {
+        Path sharded = resolve(storedFileName);
+        if (Files.exists(sharded)) {
+            return sharded;
+        }
+        Path flat = root.resolve(storedFileName).normalize();
+        return Files.exists(flat) ? flat : sharded;
+    }
+}
@@ -0,0 +1,32 @@
+package service;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Slf4j
+@Getter
+@Builder
+class StagedFile {
+    private final String storedFileName;
+    private final Path path;
+    private final String originalFileName;
+    private final String contentType;
+    private final long size;
+    private final String checksum;
+    private final long crc32;
+    private final ContentCoding storageCoding;
+    private final long storedSize;
+
+    void discard() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete staged file: {}", path, e);
+        }
+    }
+}
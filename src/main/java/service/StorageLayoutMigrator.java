@@ -0,0 +1,71 @@
+package service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import service.abstracts.StorageLayout;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Slf4j
+@RequiredArgsConstructor
+public class StorageLayoutMigrator implements Runnable {
+    private final StorageLayout storageLayout;
+
+    @Override
+    public void run() {
+        try {
+            migrate();
+        } catch (IOException e) {
+            log.error("Storage layout migration failed", e);
+        }
+    }
+
+    public int migrate() throws IOException {
+        Path root = storageLayout.getRoot();
+        log.info("Migrating stored files under {} to the configured layout", root.toAbsolutePath());
+
+        int moved = 0;
+        int skipped = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root,
+                path -> Files.isRegularFile(path) && !path.getFileName().toString().startsWith("."))) {
+            for (Path source : files) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.warn("Storage layout migration interrupted after moving {} files", moved);
+                    return moved;
+                }
+
+                String storedFileName = source.getFileName().toString();
+                Path target = storageLayout.resolve(storedFileName);
+                if (target.equals(source.normalize())) {
+                    continue;
+                }
+
+                try {
+                    if (Files.exists(target)) {
+                        throw new FileAlreadyExistsException(target.toString());
+                    }
+                    Files.createDirectories(target.getParent());
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                    if (moved % 10_000 == 0) {
+                        log.info("Storage layout migration progress: {} files moved", moved);
+                    }
+                } catch (FileAlreadyExistsException e) {
+                    log.warn("Not migrating {}, {} already exists", source, target);
+                    skipped++;
+                } catch (NoSuchFileException e) {
+                    log.debug("File disappeared during migration: {}", source);
+                }
+            }
+        }
+
+        log.info("Storage layout migration completed: {} files moved, {} skipped", moved, skipped);
+        return moved;
+    }
+}
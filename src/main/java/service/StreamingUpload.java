@@ -0,0 +1,124 @@
+package service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+@Slf4j
+public class StreamingUpload implements AutoCloseable {
+    @Getter
+    private final String originalFileName;
+    @Getter
+    private final String declaredContentType;
+    @Getter
+    private final String storedFileName;
+    @Getter
+    private final Path targetPath;
+    @Getter
+    private long size;
+    @Getter
+    private String checksum;
+    @Getter
+    private long crc32;
+    @Getter
+    private ContentCoding storageCoding;
+    @Getter
+    private long storedSize;
+
+    private final FileChannel channel;
+    private final MessageDigest digest;
+    private final CRC32 crc = new CRC32();
+    private final Function<String, ContentCoding> codingSelector;
+    private final byte[] head = new byte[ContentTypeSniffer.SNIFF_LENGTH];
+    private int headLength;
+    private OutputStream out;
+
+    StreamingUpload(String originalFileName, String declaredContentType, String storedFileName, Path targetPath,
+                    Function<String, ContentCoding> codingSelector) throws IOException {
+        this.originalFileName = originalFileName;
+        this.declaredContentType = declaredContentType;
+        this.storedFileName = storedFileName;
+        this.targetPath = targetPath;
+        this.codingSelector = codingSelector;
+        this.digest = createDigest();
+        this.channel = FileChannel.open(targetPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        digest.update(buffer, offset, length);
+        crc.update(buffer, offset, length);
+        size += length;
+
+        if (out == null) {
+            int headBytes = Math.min(head.length - headLength, length);
+            System.arraycopy(buffer, offset, head, headLength, headBytes);
+            headLength += headBytes;
+            if (headLength < head.length) {
+                return;
+            }
+            openOutput();
+            offset += headBytes;
+            length -= headBytes;
+        }
+
+        out.write(buffer, offset, length);
+    }
+
+    private void openOutput() throws IOException {
+        storageCoding = codingSelector.apply(getSniffedContentType());
+        OutputStream fileOut = Channels.newOutputStream(channel);
+        out = storageCoding != null ? storageCoding.encode(fileOut) : fileOut;
+        out.write(head, 0, headLength);
+    }
+
+    public String getSniffedContentType() {
+        return ContentTypeSniffer.detect(head, headLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                if (out == null) {
+                    openOutput();
+                }
+                out.close();
+            } finally {
+                channel.close();
+            }
+            storedSize = Files.size(targetPath);
+            checksum = HexFormat.of().formatHex(digest.digest());
+            crc32 = crc.getValue();
+        }
+    }
+
+    public void abort() {
+        try {
+            close();
+            Files.deleteIfExists(targetPath);
+            log.debug("Aborted upload removed: {}", targetPath);
+        } catch (IOException e) {
+            log.error("Could not remove aborted upload: {}", targetPath, e);
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class TokenUsageStore {
+    private final int capacity;
+    private final Cache<Long, Usage> usages;
+
+    public TokenUsageStore(int capacity) {
+        this.capacity = capacity;
+        this.usages = Caffeine.newBuilder()
+                .expireAfter(new UsageExpiry())
+                .build();
+    }
+
+    public boolean tryConsume(long nonce, int maxUses, long expiresAt) {
+        Usage usage = usages.getIfPresent(nonce);
+        if (usage == null) {
+            if (usages.estimatedSize() >= capacity) {
+                usages.cleanUp();
+                if (usages.estimatedSize() >= capacity) {
+                    log.warn("Token usage store is full ({} entries), rejecting limited-use token", capacity);
+                    return false;
+                }
+            }
+            usage = usages.get(nonce, key -> new Usage(expiresAt));
+        }
+
+        int used = usage.uses.incrementAndGet();
+        return used <= maxUses;
+    }
+
+    public long size() {
+        return usages.estimatedSize();
+    }
+
+    private static class Usage {
+        private final long expiresAt;
+        private final AtomicInteger uses = new AtomicInteger();
+
+        private Usage(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class UsageExpiry implements Expiry<Long, Usage> {
+        @Override
+        public long expireAfterCreate(Long nonce, Usage usage, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(usage.expiresAt - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long nonce, Usage usage, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Long nonce, Usage usage, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
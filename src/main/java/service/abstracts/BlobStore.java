@@ -0,0 +1,25 @@
+package service.abstracts;
+
+import model.dto.BlobStat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface BlobStore {
+    /**
+     * Stores the content of a staged local file under the given key. The staged file is consumed.
+     */
+    void put(String key, Path source) throws IOException;
+
+    InputStream get(String key, long position, long count) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    Optional<BlobStat> stat(String key) throws IOException;
+
+    default Optional<Path> getLocalPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,9 @@
+package service.abstracts;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@FunctionalInterface
+public interface ContentSource {
+    InputStream open() throws IOException;
+}
@@ -0,0 +1,13 @@
+package service.abstracts;
+
+import java.nio.file.Path;
+
+public interface StorageLayout {
+    Path getRoot();
+
+    Path resolve(String storedFileName);
+
+    default Path locate(String storedFileName) {
+        return resolve(storedFileName);
+    }
+}
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS file_metadata (
+    id                 UUID         NOT NULL,
+    original_file_name VARCHAR(255) NOT NULL,
+    stored_file_name   VARCHAR(255) NOT NULL,
+    file_size          BIGINT       NOT NULL,
+    content_type       VARCHAR(255) NOT NULL,
+    upload_date        TIMESTAMP(6) NOT NULL,
+    last_download_date TIMESTAMP(6),
+    download_count     INTEGER      NOT NULL,
+    CONSTRAINT file_metadata_pkey PRIMARY KEY (id),
+    CONSTRAINT file_metadata_stored_file_name_key UNIQUE (stored_file_name)
+);
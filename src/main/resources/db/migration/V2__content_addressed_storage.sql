@@ -0,0 +1,26 @@
+ALTER TABLE file_metadata ADD COLUMN IF NOT EXISTS checksum VARCHAR(64);
+
+CREATE TABLE IF NOT EXISTS stored_blob (
+    digest          VARCHAR(64)  NOT NULL,
+    blob_size       BIGINT       NOT NULL,
+    reference_count BIGINT       NOT NULL,
+    created_date    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT stored_blob_pkey PRIMARY KEY (digest)
+);
+
+-- Schemas created by hbm2ddl carry a generated name for this constraint.
+DO $$
+DECLARE
+    unique_constraint TEXT;
+BEGIN
+    FOR unique_constraint IN
+        SELECT con.conname
+        FROM pg_constraint con
+                 JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'file_metadata'::regclass
+          AND con.contype = 'u'
+          AND att.attname = 'stored_file_name'
+    LOOP
+        EXECUTE format('ALTER TABLE file_metadata DROP CONSTRAINT %I', unique_constraint);
+    END LOOP;
+END $$;
@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS idx_file_metadata_last_activity
+    ON file_metadata ((COALESCE(last_download_date, upload_date)), id);
+
+CREATE INDEX IF NOT EXISTS idx_file_metadata_upload_date_id
+    ON file_metadata (upload_date DESC, id DESC);
+
+ANALYZE file_metadata;
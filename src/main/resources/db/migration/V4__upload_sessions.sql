@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS upload_session (
+    id                 UUID         NOT NULL,
+    original_file_name VARCHAR(255) NOT NULL,
+    content_type       VARCHAR(255),
+    total_size         BIGINT       NOT NULL,
+    chunk_size         BIGINT       NOT NULL,
+    chunk_count        INTEGER      NOT NULL,
+    status             VARCHAR(16)  NOT NULL,
+    created_date       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT upload_session_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_session_created_date ON upload_session (created_date);
+
+CREATE TABLE IF NOT EXISTS upload_chunk (
+    session_id    UUID         NOT NULL,
+    chunk_index   INTEGER      NOT NULL,
+    checksum      VARCHAR(64)  NOT NULL,
+    received_date TIMESTAMP(6) NOT NULL,
+    CONSTRAINT upload_chunk_pkey PRIMARY KEY (session_id, chunk_index),
+    CONSTRAINT upload_chunk_session_fk FOREIGN KEY (session_id) REFERENCES upload_session (id) ON DELETE CASCADE
+);
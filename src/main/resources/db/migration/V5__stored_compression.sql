@@ -0,0 +1,5 @@
+ALTER TABLE file_metadata ADD COLUMN IF NOT EXISTS storage_coding VARCHAR(16);
+ALTER TABLE file_metadata ADD COLUMN IF NOT EXISTS stored_size BIGINT;
+
+-- Compressed blobs are addressed by the digest of their content plus the coding suffix.
+ALTER TABLE stored_blob ALTER COLUMN digest TYPE VARCHAR(72);
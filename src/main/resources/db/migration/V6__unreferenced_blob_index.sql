@@ -0,0 +1,3 @@
+-- Cleanup drops the last reference before it deletes the blob file; rows left at zero are swept later.
+CREATE INDEX IF NOT EXISTS idx_stored_blob_unreferenced
+    ON stored_blob (digest) WHERE reference_count = 0;
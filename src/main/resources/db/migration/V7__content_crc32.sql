@@ -0,0 +1,2 @@
+-- CRC-32 of the original bytes, recorded at upload so stored ZIP entries need a single read.
+ALTER TABLE file_metadata ADD COLUMN IF NOT EXISTS content_crc32 BIGINT;
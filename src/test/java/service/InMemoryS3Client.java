@@ -0,0 +1,197 @@
+package service;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps objects and multipart uploads in memory and mirrors the S3 responses the blob store relies on,
+ * including the bodiless 404 that HEAD returns for a missing key.
+ */
+class InMemoryS3Client implements S3Client {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final Set<String> abortedUploads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger putObjectCalls = new AtomicInteger();
+    private final AtomicInteger uploadPartCalls = new AtomicInteger();
+    private volatile int failingPartNumber;
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        putObjectCalls.incrementAndGet();
+        objects.put(request.key(), read(body));
+        return PutObjectResponse.builder().build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ConcurrentSkipListMap<>());
+        return CreateMultipartUploadResponse.builder()
+                .bucket(request.bucket())
+                .key(request.key())
+                .uploadId(uploadId)
+                .build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+        uploadPartCalls.incrementAndGet();
+        Map<Integer, byte[]> parts = openUpload(request.uploadId());
+        if (request.partNumber() == failingPartNumber) {
+            throw (S3Exception) S3Exception.builder().statusCode(500).message("Injected part failure").build();
+        }
+        byte[] content = read(body);
+        if (request.contentLength() != null && request.contentLength() != content.length) {
+            throw (S3Exception) S3Exception.builder().statusCode(400).message("Content length mismatch").build();
+        }
+        parts.put(request.partNumber(), content);
+        return UploadPartResponse.builder().eTag("\"part-" + request.partNumber() + "\"").build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        Map<Integer, byte[]> parts = openUpload(request.uploadId());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int expectedPartNumber = 1;
+        for (CompletedPart part : request.multipartUpload().parts()) {
+            byte[] partContent = parts.get(part.partNumber());
+            if (part.partNumber() != expectedPartNumber++ || partContent == null) {
+                throw (S3Exception) S3Exception.builder().statusCode(400).message("Invalid part order").build();
+            }
+            content.writeBytes(partContent);
+        }
+        uploads.remove(request.uploadId());
+        objects.put(request.key(), content.toByteArray());
+        return CompleteMultipartUploadResponse.builder().bucket(request.bucket()).key(request.key()).build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        if (uploads.remove(request.uploadId()) == null) {
+            throw NoSuchUploadException.builder().statusCode(404).build();
+        }
+        abortedUploads.add(request.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+        byte[] content = objects.get(request.key());
+        if (content == null) {
+            throw NoSuchKeyException.builder().statusCode(404).build();
+        }
+        int from = 0;
+        int to = content.length;
+        if (request.range() != null) {
+            String[] bounds = request.range().substring("bytes=".length()).split("-");
+            from = Integer.parseInt(bounds[0]);
+            to = Math.min(Integer.parseInt(bounds[1]) + 1, content.length);
+        }
+        byte[] slice = Arrays.copyOfRange(content, from, to);
+        GetObjectResponse response = GetObjectResponse.builder().contentLength((long) slice.length).build();
+        return new ResponseInputStream<>(response, AbortableInputStream.create(new ByteArrayInputStream(slice)));
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        byte[] content = objects.get(request.key());
+        if (content == null) {
+            throw (S3Exception) S3Exception.builder().statusCode(404).build();
+        }
+        return HeadObjectResponse.builder()
+                .contentLength((long) content.length)
+                .lastModified(Instant.now())
+                .build();
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        objects.remove(request.key());
+        return DeleteObjectResponse.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    void failPart(int partNumber) {
+        this.failingPartNumber = partNumber;
+    }
+
+    byte[] object(String key) {
+        return objects.get(key);
+    }
+
+    int openUploads() {
+        return uploads.size();
+    }
+
+    int abortedUploads() {
+        return abortedUploads.size();
+    }
+
+    int putObjectCalls() {
+        return putObjectCalls.get();
+    }
+
+    int uploadPartCalls() {
+        return uploadPartCalls.get();
+    }
+
+    private Map<Integer, byte[]> openUpload(String uploadId) {
+        Map<Integer, byte[]> parts = uploads.get(uploadId);
+        if (parts == null) {
+            throw NoSuchUploadException.builder().statusCode(404).build();
+        }
+        return parts;
+    }
+
+    private static byte[] read(RequestBody body) {
+        try (InputStream content = body.contentStreamProvider().newStream()) {
+            return content.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
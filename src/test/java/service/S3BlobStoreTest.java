@@ -0,0 +1,138 @@
+package service;
+
+import model.dto.BlobStat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class S3BlobStoreTest {
+    private static final String BUCKET = "files";
+    private static final String PREFIX = "blobs/";
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryS3Client s3Client;
+    private S3BlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        s3Client = new InMemoryS3Client();
+        blobStore = new S3BlobStore(s3Client, BUCKET, PREFIX, PART_SIZE, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blobStore.close();
+    }
+
+    @Test
+    void putsSmallBlobInSingleRequest() throws IOException {
+        byte[] content = randomBytes(64 * 1024);
+        Path source = write(content);
+
+        blobStore.put("small", source);
+
+        assertArrayEquals(content, s3Client.object(PREFIX + "small"));
+        assertEquals(1, s3Client.putObjectCalls());
+        assertEquals(0, s3Client.uploadPartCalls());
+        assertFalse(Files.exists(source));
+    }
+
+    @Test
+    void putsLargeBlobInParts() throws IOException {
+        byte[] content = randomBytes((int) (2 * PART_SIZE + 12345));
+        Path source = write(content);
+
+        blobStore.put("large", source);
+
+        assertArrayEquals(content, s3Client.object(PREFIX + "large"));
+        assertEquals(0, s3Client.putObjectCalls());
+        assertEquals(3, s3Client.uploadPartCalls());
+        assertEquals(0, s3Client.openUploads());
+        assertFalse(Files.exists(source));
+    }
+
+    @Test
+    void abortsMultipartUploadWhenPartFails() throws IOException {
+        byte[] content = randomBytes((int) (2 * PART_SIZE + 1));
+        Path source = write(content);
+        s3Client.failPart(2);
+
+        assertThrows(IOException.class, () -> blobStore.put("broken", source));
+
+        assertNull(s3Client.object(PREFIX + "broken"));
+        assertEquals(1, s3Client.abortedUploads());
+        assertEquals(0, s3Client.openUploads());
+        assertTrue(Files.exists(source));
+    }
+
+    @Test
+    void readsRequestedRange() throws IOException {
+        byte[] content = randomBytes(10_000);
+        blobStore.put("ranged", write(content));
+
+        try (InputStream range = blobStore.get("ranged", 1000, 2500)) {
+            assertArrayEquals(Arrays.copyOfRange(content, 1000, 3500), range.readAllBytes());
+        }
+        try (InputStream tail = blobStore.get("ranged", 9990, 10)) {
+            assertArrayEquals(Arrays.copyOfRange(content, 9990, 10_000), tail.readAllBytes());
+        }
+        try (InputStream empty = blobStore.get("ranged", 500, 0)) {
+            assertEquals(0, empty.readAllBytes().length);
+        }
+    }
+
+    @Test
+    void statReportsSizeOrEmptyForMissingKey() throws IOException {
+        blobStore.put("present", write(randomBytes(4096)));
+
+        Optional<BlobStat> present = blobStore.stat("present");
+        assertTrue(present.isPresent());
+        assertEquals("present", present.get().getKey());
+        assertEquals(4096, present.get().getSize());
+
+        assertTrue(blobStore.stat("missing").isEmpty());
+    }
+
+    @Test
+    void deleteRemovesBlobAndToleratesMissingKey() throws IOException {
+        blobStore.put("doomed", write(randomBytes(128)));
+
+        blobStore.delete("doomed");
+        blobStore.delete("doomed");
+
+        assertNull(s3Client.object(PREFIX + "doomed"));
+        assertTrue(blobStore.stat("doomed").isEmpty());
+        assertThrows(IOException.class, () -> blobStore.get("doomed", 0, 1));
+    }
+
+    private Path write(byte[] content) throws IOException {
+        Path source = Files.createTempFile(tempDir, "blob", ".tmp");
+        Files.write(source, content);
+        return source;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}